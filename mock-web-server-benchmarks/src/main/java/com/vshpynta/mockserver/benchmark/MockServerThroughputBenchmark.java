@@ -0,0 +1,106 @@
+package com.vshpynta.mockserver.benchmark;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.common.Slf4jNotifier;
+import com.vshpynta.mockserver.NioMockServer;
+import com.vshpynta.mockserver.RequestStubConfig;
+import com.vshpynta.mockserver.WireMockServerConfigurer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+import static com.vshpynta.mockserver.WireMockServerCreator.createWireMockServer;
+import static com.vshpynta.mockserver.WireMockServerCreator.defaultWireMockConfig;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Compares requests served per second by a WireMock server and by {@link NioMockServer} for the same scenario,
+ * from keep-alive clients.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class MockServerThroughputBenchmark {
+
+    private static final byte[] REQUEST_BODY = "{\"price\":1111}".getBytes(UTF_8);
+
+    @Param({"wiremock", "nio"})
+    private String server;
+
+    private WireMockServer wireMockServer;
+    private NioMockServer nioMockServer;
+    private URL url;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        RequestStubConfig scenario = RequestStubConfig.of("benchmark/json.txt");
+        if ("nio".equals(server)) {
+            nioMockServer = NioMockServer.start();
+            nioMockServer.stubRequests(scenario);
+            url = new URL(nioMockServer.baseUrl() + "/price/update");
+        } else {
+            wireMockServer = createWireMockServer(defaultWireMockConfig()
+                    .notifier(new Slf4jNotifier(false))
+                    .disableRequestJournal(), 10);
+            WireMockServerConfigurer.stubRequests(wireMockServer, scenario);
+            url = new URL("http://localhost:" + wireMockServer.port() + "/price/update");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (nioMockServer != null) {
+            nioMockServer.close();
+        }
+        if (wireMockServer != null) {
+            wireMockServer.stop();
+        }
+    }
+
+    @Benchmark
+    public int request(ClientState client) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod("POST");
+        connection.setRequestProperty("Content-Type", "application/json");
+        connection.setDoOutput(true);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(REQUEST_BODY);
+        }
+        int read = 0;
+        try (InputStream in = connection.getInputStream()) {
+            int count;
+            while ((count = in.read(client.buffer)) >= 0) {
+                read += count;
+            }
+        }
+        return read;
+    }
+
+    @State(Scope.Thread)
+    public static class ClientState {
+
+        private final byte[] buffer = new byte[8192];
+    }
+}
@@ -0,0 +1,119 @@
+package com.vshpynta.mockserver.benchmark;
+
+import com.vshpynta.mockserver.MockServerCallMatcher;
+import com.vshpynta.mockserver.MockServerCallParser;
+import com.vshpynta.mockserver.MockServerRule;
+import com.vshpynta.mockserver.MockServerScenario;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+import java.util.Collections;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Measures request matching done by {@link MockServerRule} for JSON, form and plain request bodies: the compiled
+ * {@link MockServerCallMatcher} alone and a test of the rule sending one request, which also pays for registering
+ * the expectation, the {@link RestTemplate} call through {@code MockRestServiceServer} and the verification.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestMatchingBenchmark {
+
+    @Param({"json", "form", "plain"})
+    private String body;
+
+    private MockServerCallMatcher matcher;
+    private URI uri;
+    private HttpHeaders headers;
+    private byte[] requestBody;
+    private RestTemplate restTemplate;
+    private MockServerRule rule;
+    private Description description;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        matcher = MockServerCallMatcher.compile(
+                MockServerCallParser.parseFile("benchmark/" + body + ".txt", Collections.emptyMap()));
+        uri = URI.create("http://test.com/price/update?currency=USD");
+        headers = new HttpHeaders();
+        switch (body) {
+            case "json":
+                headers.setContentType(MediaType.APPLICATION_JSON);
+                requestBody = "{\"currency\":\"USD\",\"price\":1111,\"tags\":[\"a\",\"b\"]}".getBytes(UTF_8);
+                break;
+            case "form":
+                headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+                requestBody = "price=555&currency=USD&sessionId=AAA&userId=1111".getBytes(UTF_8);
+                break;
+            default:
+                headers.setContentType(MediaType.TEXT_PLAIN);
+                requestBody = "price=1111".getBytes(UTF_8);
+        }
+        restTemplate = new RestTemplate();
+        rule = new MockServerRule(() -> restTemplate);
+        description = Description.createTestDescription(ScenarioTests.class, body,
+                ScenarioTests.class.getMethod(body).getAnnotations());
+    }
+
+    @Benchmark
+    public String match() {
+        String mismatch = matcher.mismatch(HttpMethod.POST, uri, headers, () -> requestBody);
+        if (mismatch != null) {
+            throw new IllegalStateException(mismatch);
+        }
+        return mismatch;
+    }
+
+    @Benchmark
+    public String ruleRequest() throws Throwable {
+        String[] response = new String[1];
+        rule.apply(new Statement() {
+            @Override
+            public void evaluate() {
+                response[0] = restTemplate.postForObject(uri, new HttpEntity<>(requestBody, headers), String.class);
+            }
+        }, description).evaluate();
+        return response[0];
+    }
+
+    /**
+     * Tests of the benchmarked scenarios, the rule reads their {@link MockServerScenario} annotations.
+     */
+    public static class ScenarioTests {
+
+        @MockServerScenario("benchmark/json.txt")
+        public void json() {
+        }
+
+        @MockServerScenario("benchmark/form.txt")
+        public void form() {
+        }
+
+        @MockServerScenario("benchmark/plain.txt")
+        public void plain() {
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.vshpynta.mockserver.benchmark;
+
+import com.vshpynta.mockserver.MockServerCall;
+import com.vshpynta.mockserver.MockServerCallParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+/**
+ * Measures {@link MockServerCallParser#parseFile} for scenario files of various body sizes and placeholder counts:
+ * binding the cached template of the file and parsing the file text, as the first parse of a file does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScenarioParsingBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    private int bodyLines;
+
+    @Param({"0", "10", "100"})
+    private int placeholders;
+
+    private Path scenarioFile;
+    private URL scenarioUrl;
+    private Map<String, Object> context;
+
+    @Setup
+    public void setUp() throws IOException {
+        scenarioFile = Files.createTempFile("scenario", ".txt");
+        context = new HashMap<>();
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(scenarioFile, UTF_8))) {
+            writer.println("# Request");
+            writer.println("POST /price/update HTTP/1.1");
+            writer.println("Host: test.com");
+            writer.println("Content-Type: application/json");
+            writer.println();
+            writer.println("{\"price\":1111}");
+            writer.println();
+            writer.println("# Response");
+            writer.println("HTTP/1.1 200 OK");
+            writer.println("Content-Type: application/json");
+            writer.println();
+            writer.println("[");
+            for (int i = 0; i < bodyLines; i++) {
+                String value = placeholders > 0 ? "${param-" + i % placeholders + "}" : String.valueOf(i);
+                writer.println("    {\"id\":" + i + ",\"price\":\"" + value + "\"},");
+            }
+            writer.println("]");
+        }
+        for (int i = 0; i < placeholders; i++) {
+            context.put("param-" + i, i * 100);
+        }
+        scenarioUrl = scenarioFile.toUri().toURL();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(scenarioFile);
+    }
+
+    @Benchmark
+    public MockServerCall parseFile() {
+        return MockServerCallParser.parseFile(scenarioUrl, context);
+    }
+
+    @Benchmark
+    public MockServerCall parseFileUncached() {
+        MockServerCallParser.clearCache();
+        return MockServerCallParser.parseFile(scenarioUrl, context);
+    }
+}
@@ -0,0 +1,75 @@
+package com.vshpynta.mockserver.benchmark;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.vshpynta.mockserver.RequestStubConfig;
+import com.vshpynta.mockserver.WireMockServerConfigurer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.vshpynta.mockserver.WireMockServerCreator.createWireMockServer;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Measures {@link WireMockServerConfigurer} stub registration throughput, one by one and in parallel.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StubRegistrationBenchmark {
+
+    private static final String[] SCENARIOS = {"benchmark/json.txt", "benchmark/form.txt", "benchmark/plain.txt"};
+
+    @Param({"10", "100"})
+    private int stubs;
+
+    @Param({"false", "true"})
+    private boolean parallel;
+
+    private WireMockServer wireMockServer;
+    private List<RequestStubConfig> requestStubConfigs;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        wireMockServer = createWireMockServer(10);
+        requestStubConfigs = new ArrayList<>(stubs);
+        for (int i = 0; i < stubs; i++) {
+            requestStubConfigs.add(RequestStubConfig.of(SCENARIOS[i % SCENARIOS.length]));
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void resetMappings() {
+        wireMockServer.resetMappings();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        wireMockServer.stop();
+    }
+
+    @Benchmark
+    public void stubRequests() {
+        if (parallel) {
+            WireMockServerConfigurer.stubRequestsInParallel(wireMockServer, requestStubConfigs);
+        } else {
+            WireMockServerConfigurer.stubRequests(wireMockServer, requestStubConfigs);
+        }
+    }
+}
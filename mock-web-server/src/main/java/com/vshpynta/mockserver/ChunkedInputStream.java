@@ -0,0 +1,27 @@
+package com.vshpynta.mockserver;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Returns at most a chunk of the given size per read, so the body is written out chunk by chunk.
+ */
+final class ChunkedInputStream extends FilterInputStream {
+
+    private final int chunkSize;
+
+    ChunkedInputStream(InputStream in, int chunkSize) {
+        super(in);
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public int read(byte[] target, int offset, int length) throws IOException {
+        return super.read(target, offset, Math.min(length, chunkSize));
+    }
+
+    static InputStream of(InputStream in, Integer chunkSize) {
+        return chunkSize == null ? in : new ChunkedInputStream(in, chunkSize);
+    }
+}
@@ -0,0 +1,261 @@
+package com.vshpynta.mockserver;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.RequestExpectationManager;
+import org.springframework.test.web.client.RequestMatcher;
+import org.springframework.test.web.client.ResponseActions;
+import org.springframework.test.web.client.ResponseCreator;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Expectation manager for clients calling {@code RestTemplate} from several threads. Unlike Spring managers, which
+ * validate requests one at a time under a lock, requests are matched concurrently and in any order: an expectation
+ * is claimed by a compare-and-set on its counter, and the response is created outside any lock.
+ * <p>
+ * Expectations whose request matcher is an {@link IndexedRequestMatcher} are indexed by method, host and path,
+ * so a request is matched only against expectations of its own endpoint and dispatch cost does not grow with
+ * the number of expectations. Other expectations are matched against every request.
+ * <p>
+ * Expectations are expected to be declared before the first request.
+ */
+public final class ConcurrentRequestExpectationManager implements RequestExpectationManager {
+
+    private final List<Expectation> expectations = new CopyOnWriteArrayList<>();
+    private final Queue<ClientHttpRequest> requests = new ConcurrentLinkedQueue<>();
+    private volatile Index index;
+
+    @Override
+    public ResponseActions expectRequest(ExpectedCount count, RequestMatcher requestMatcher) {
+        Expectation expectation = new Expectation(count, requestMatcher);
+        expectations.add(expectation);
+        index = null;
+        return expectation;
+    }
+
+    /**
+     * Drops the index, so it is built again on the next request, e.g. when indexed matchers have changed
+     * their endpoints.
+     */
+    public void invalidateIndex() {
+        index = null;
+    }
+
+    @Override
+    public ClientHttpResponse validateRequest(ClientHttpRequest request) throws IOException {
+        requests.add(request);
+        Index currentIndex = index;
+        if (currentIndex == null) {
+            currentIndex = new Index(expectations);
+            index = currentIndex;
+        }
+        AssertionError firstMismatch = null;
+        for (Expectation expectation : currentIndex.candidates(request.getMethod(), request.getURI())) {
+            if (!expectation.hasRemainingCount()) {
+                continue;
+            }
+            try {
+                expectation.match(request);
+            } catch (AssertionError mismatch) {
+                if (firstMismatch == null) {
+                    firstMismatch = mismatch;
+                }
+                continue;
+            }
+            if (!expectation.claim()) {
+                continue;
+            }
+            if (expectation.commit(request)) {
+                return expectation.createResponse(request);
+            }
+            expectation.release();
+        }
+        String message = "No further requests expected: HTTP " + request.getMethod() + " " + request.getURI() + "\n";
+        throw new AssertionError(firstMismatch == null ? message + getRequestDetails()
+                : message + firstMismatch.getMessage() + "\n" + getRequestDetails());
+    }
+
+    @Override
+    public void verify() {
+        long unsatisfied = expectations.stream().filter(expectation -> !expectation.isSatisfied()).count();
+        if (unsatisfied > 0) {
+            throw new AssertionError("Further request(s) expected leaving " + unsatisfied
+                    + " unsatisfied expectation(s).\n" + getRequestDetails());
+        }
+    }
+
+    @Override
+    public void reset() {
+        expectations.clear();
+        requests.clear();
+        index = null;
+    }
+
+    private String getRequestDetails() {
+        StringBuilder details = new StringBuilder().append(requests.size()).append(" request(s) executed");
+        if (requests.isEmpty()) {
+            return details.append(".\n").toString();
+        }
+        details.append(":\n");
+        requests.forEach(request -> details.append(request).append('\n'));
+        return details.toString();
+    }
+
+    private static String endpoint(HttpMethod method, String host, String path) {
+        return method + " " + host + path;
+    }
+
+    /**
+     * Request matcher checking a single endpoint, which lets the manager index its expectation.
+     */
+    public interface IndexedRequestMatcher extends RequestMatcher {
+
+        HttpMethod getMethod();
+
+        String getHost();
+
+        String getPath();
+    }
+
+    /**
+     * Request matcher with a side effect, e.g. a scenario state transition, which must not run while requests are
+     * only matched: it is committed once the expectation is claimed for the request. If the commit fails, because
+     * another request has changed what the matcher checked, the claim is released and the request is matched
+     * against the next expectations.
+     */
+    public interface CommittingRequestMatcher extends RequestMatcher {
+
+        boolean commit(ClientHttpRequest request);
+    }
+
+    /**
+     * Immutable snapshot of the expectations grouped by endpoint, in declaration order.
+     */
+    private static final class Index {
+
+        private final Map<String, List<Expectation>> indexed = new HashMap<>();
+        private final List<Expectation> unindexed = new ArrayList<>();
+
+        Index(List<Expectation> expectations) {
+            for (Expectation expectation : expectations) {
+                RequestMatcher requestMatcher = expectation.requestMatchers.get(0);
+                if (requestMatcher instanceof IndexedRequestMatcher) {
+                    IndexedRequestMatcher indexedMatcher = (IndexedRequestMatcher) requestMatcher;
+                    indexed.computeIfAbsent(endpoint(indexedMatcher.getMethod(), indexedMatcher.getHost(),
+                            indexedMatcher.getPath()), endpoint -> new ArrayList<>()).add(expectation);
+                } else {
+                    unindexed.add(expectation);
+                }
+            }
+        }
+
+        Iterable<Expectation> candidates(HttpMethod method, URI uri) {
+            List<Expectation> endpointExpectations = indexed.get(endpoint(method, uri.getHost(), uri.getPath()));
+            if (endpointExpectations == null) {
+                return unindexed;
+            }
+            if (unindexed.isEmpty()) {
+                return endpointExpectations;
+            }
+            List<Expectation> candidates = new ArrayList<>(endpointExpectations.size() + unindexed.size());
+            candidates.addAll(endpointExpectations);
+            candidates.addAll(unindexed);
+            return candidates;
+        }
+    }
+
+    /**
+     * Expectation with thread-safe invocation counter.
+     */
+    private static final class Expectation implements ResponseActions, RequestMatcher, ResponseCreator {
+
+        private final int minCount;
+        private final int maxCount;
+        private final AtomicInteger matchedCount = new AtomicInteger();
+        private final List<RequestMatcher> requestMatchers = new CopyOnWriteArrayList<>();
+        private volatile ResponseCreator responseCreator;
+
+        Expectation(ExpectedCount count, RequestMatcher requestMatcher) {
+            this.minCount = count.getMinCount();
+            this.maxCount = count.getMaxCount();
+            this.requestMatchers.add(requestMatcher);
+        }
+
+        @Override
+        public ResponseActions andExpect(RequestMatcher requestMatcher) {
+            requestMatchers.add(requestMatcher);
+            return this;
+        }
+
+        @Override
+        public void andRespond(ResponseCreator responseCreator) {
+            this.responseCreator = responseCreator;
+        }
+
+        @Override
+        public void match(ClientHttpRequest request) throws IOException {
+            for (RequestMatcher requestMatcher : requestMatchers) {
+                requestMatcher.match(request);
+            }
+        }
+
+        @Override
+        public ClientHttpResponse createResponse(ClientHttpRequest request) throws IOException {
+            if (responseCreator == null) {
+                throw new IllegalStateException("createResponse called before ResponseCreator was set");
+            }
+            return responseCreator.createResponse(request);
+        }
+
+        boolean hasRemainingCount() {
+            return matchedCount.get() < maxCount;
+        }
+
+        boolean isSatisfied() {
+            return matchedCount.get() >= minCount;
+        }
+
+        /**
+         * Commits the {@link CommittingRequestMatcher}s of the expectation, stops at the first failed one.
+         */
+        boolean commit(ClientHttpRequest request) {
+            for (RequestMatcher requestMatcher : requestMatchers) {
+                if (requestMatcher instanceof CommittingRequestMatcher
+                        && !((CommittingRequestMatcher) requestMatcher).commit(request)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void release() {
+            matchedCount.decrementAndGet();
+        }
+
+        /**
+         * Counts the matched request, fails if another thread has taken the last remaining invocation.
+         */
+        boolean claim() {
+            int count;
+            do {
+                count = matchedCount.get();
+                if (count >= maxCount) {
+                    return false;
+                }
+            } while (!matchedCount.compareAndSet(count, count + 1));
+            return true;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.vshpynta.mockserver;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Response, or fault, an asynchronous request is completed with once the delay elapses,
+ * see {@link ScheduledMockRequestFactory}.
+ */
+final class DelayedResponse implements ClientHttpResponse {
+
+    private final long delayMillis;
+    private final ClientHttpResponse response;
+    private final IOException fault;
+
+    DelayedResponse(long delayMillis, ClientHttpResponse response, IOException fault) {
+        this.delayMillis = delayMillis;
+        this.response = response;
+        this.fault = fault;
+    }
+
+    long getDelayMillis() {
+        return delayMillis;
+    }
+
+    ClientHttpResponse getResponse() {
+        return response;
+    }
+
+    IOException getFault() {
+        return fault;
+    }
+
+    @Override
+    public HttpStatus getStatusCode() throws IOException {
+        return target().getStatusCode();
+    }
+
+    @Override
+    public int getRawStatusCode() throws IOException {
+        return target().getRawStatusCode();
+    }
+
+    @Override
+    public String getStatusText() throws IOException {
+        return target().getStatusText();
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        return response != null ? response.getHeaders() : new HttpHeaders();
+    }
+
+    @Override
+    public InputStream getBody() throws IOException {
+        return target().getBody();
+    }
+
+    @Override
+    public void close() {
+        if (response != null) {
+            response.close();
+        }
+    }
+
+    private ClientHttpResponse target() throws IOException {
+        if (fault != null) {
+            throw fault;
+        }
+        return response;
+    }
+}
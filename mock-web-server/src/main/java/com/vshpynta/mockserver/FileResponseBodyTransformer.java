@@ -0,0 +1,44 @@
+package com.vshpynta.mockserver;
+
+import com.github.tomakehurst.wiremock.common.BinaryFile;
+import com.github.tomakehurst.wiremock.common.FileSource;
+import com.github.tomakehurst.wiremock.extension.Parameters;
+import com.github.tomakehurst.wiremock.extension.ResponseTransformer;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.Response;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Serves stub response bodies from files written by {@link ResponseBodyFiles}: either streamed from disk or
+ * from a shared memory-mapped region, see {@link ResponseBodySource}. The request journal does not keep such bodies,
+ * see {@link StreamedResponse}.
+ * Is registered in servers created by {@link WireMockServerCreator}.
+ */
+public class FileResponseBodyTransformer extends ResponseTransformer {
+
+    public static final String NAME = "file-response-body";
+
+    static final String BODY_FILE_PARAMETER = "bodyFile";
+    static final String MAPPED_PARAMETER = "mapped";
+
+    @Override
+    public Response transform(Request request, Response response, FileSource files, Parameters parameters) {
+        Path bodyFile = Paths.get(parameters.getString(BODY_FILE_PARAMETER));
+        if (Boolean.TRUE.equals(parameters.get(MAPPED_PARAMETER)) && bodyFile.toFile().length() <= Integer.MAX_VALUE) {
+            return new StreamedResponse(response, () -> new ByteBufferInputStream(ResponseBodyFiles.mapped(bodyFile)));
+        }
+        return new StreamedResponse(response, new BinaryFile(bodyFile.toUri()));
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean applyGlobally() {
+        return false;
+    }
+}
@@ -0,0 +1,75 @@
+package com.vshpynta.mockserver;
+
+import lombok.SneakyThrows;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import java.net.URLDecoder;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.commons.lang3.StringUtils.EMPTY;
+
+/**
+ * Matches URL-encoded form bodies: the expected parameters are parsed once and must be a subset of the actual ones.
+ * Names and values are compared decoded, the order of parameters does not matter.
+ */
+public final class FormDataMatcher {
+
+    private final String expectedContent;
+    private final MultiValueMap<String, String> expectedParameters;
+
+    private FormDataMatcher(String expectedContent) {
+        this.expectedContent = expectedContent;
+        this.expectedParameters = parse(expectedContent.replaceAll("\\r|\\n", EMPTY));
+    }
+
+    public static FormDataMatcher compile(String expectedContent) {
+        return new FormDataMatcher(expectedContent);
+    }
+
+    public String getExpectedContent() {
+        return expectedContent;
+    }
+
+    public boolean matches(String actualContent) {
+        MultiValueMap<String, String> actualParameters = parse(actualContent);
+        for (Map.Entry<String, List<String>> parameter : expectedParameters.entrySet()) {
+            List<String> actualValues = actualParameters.get(parameter.getKey());
+            if (actualValues == null || !actualValues.containsAll(parameter.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses URL-encoded form body into decoded parameters.
+     */
+    public static MultiValueMap<String, String> parse(String content) {
+        MultiValueMap<String, String> parameters = new LinkedMultiValueMap<>();
+        int start = 0;
+        while (start < content.length()) {
+            int end = content.indexOf('&', start);
+            if (end < 0) {
+                end = content.length();
+            }
+            if (end > start) {
+                int separator = content.indexOf('=', start);
+                if (separator < 0 || separator > end) {
+                    parameters.add(decode(content.substring(start, end)), EMPTY);
+                } else {
+                    parameters.add(decode(content.substring(start, separator)), decode(content.substring(separator + 1, end)));
+                }
+            }
+            start = end + 1;
+        }
+        return parameters;
+    }
+
+    @SneakyThrows
+    private static String decode(String value) {
+        return value.indexOf('%') < 0 && value.indexOf('+') < 0 ? value : URLDecoder.decode(value, UTF_8.name());
+    }
+}
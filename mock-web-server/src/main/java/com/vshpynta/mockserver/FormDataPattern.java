@@ -0,0 +1,27 @@
+package com.vshpynta.mockserver;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.github.tomakehurst.wiremock.matching.MatchResult;
+import com.github.tomakehurst.wiremock.matching.StringValuePattern;
+
+/**
+ * WireMock request body pattern backed by {@link FormDataMatcher}, the expected parameters are parsed once per stub.
+ */
+public class FormDataPattern extends StringValuePattern {
+
+    private final FormDataMatcher matcher;
+
+    public FormDataPattern(@JsonProperty("containsFormParameters") String expectedContent) {
+        super(expectedContent);
+        this.matcher = FormDataMatcher.compile(expectedContent);
+    }
+
+    public static FormDataPattern containingFormParameters(String expectedContent) {
+        return new FormDataPattern(expectedContent);
+    }
+
+    @Override
+    public MatchResult match(String value) {
+        return MatchResult.of(value != null && matcher.matches(value));
+    }
+}
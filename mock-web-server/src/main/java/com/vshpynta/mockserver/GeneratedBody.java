@@ -0,0 +1,153 @@
+package com.vshpynta.mockserver;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Body synthesized from a record repeated the given number of times, {@code {{index}}} in the record is replaced
+ * by the zero-based record index. Records are generated one at a time while the body is read, so the body is
+ * never held in memory.
+ */
+public final class GeneratedBody implements MockServerCallBody.Source {
+
+    public static final String INDEX = "{{index}}";
+
+    /**
+     * How records are put together.
+     */
+    public enum Format {
+        JSON_ARRAY("[", ",", "]"),
+        LINES("", "\n", "");
+
+        private final byte[] prefix;
+        private final byte[] separator;
+        private final byte[] suffix;
+
+        Format(String prefix, String separator, String suffix) {
+            this.prefix = prefix.getBytes(UTF_8);
+            this.separator = separator.getBytes(UTF_8);
+            this.suffix = suffix.getBytes(UTF_8);
+        }
+    }
+
+    private final Format format;
+    private final int count;
+    private final String record;
+    private final String[] recordParts;
+
+    public GeneratedBody(Format format, int count, String record) {
+        this.format = format;
+        this.count = count;
+        this.record = record;
+        List<String> parts = new ArrayList<>();
+        int start = 0;
+        int index;
+        while ((index = record.indexOf(INDEX, start)) >= 0) {
+            parts.add(record.substring(start, index));
+            start = index + INDEX.length();
+        }
+        parts.add(record.substring(start));
+        this.recordParts = parts.toArray(new String[0]);
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public String getRecord() {
+        return record;
+    }
+
+    @Override
+    public InputStream open() {
+        return new RecordsInputStream();
+    }
+
+    /**
+     * Computes the size from the record and the digits of the indices instead of generating the body.
+     */
+    @Override
+    public long size() {
+        long size = format.prefix.length + format.suffix.length;
+        if (count == 0) {
+            return size;
+        }
+        size += (long) (count - 1) * format.separator.length;
+        for (String part : recordParts) {
+            size += (long) count * part.getBytes(UTF_8).length;
+        }
+        long digits = 0;
+        for (long from = 0, to = 10, width = 1; from < count; from = to, to *= 10, width++) {
+            digits += (Math.min(to, count) - from) * width;
+        }
+        return size + digits * (recordParts.length - 1);
+    }
+
+    private byte[] record(int index) {
+        if (recordParts.length == 1) {
+            return recordParts[0].getBytes(UTF_8);
+        }
+        StringBuilder text = new StringBuilder(recordParts[0]);
+        for (int i = 1; i < recordParts.length; i++) {
+            text.append(index).append(recordParts[i]);
+        }
+        return text.toString().getBytes(UTF_8);
+    }
+
+    /**
+     * Reads prefix, records with separators and suffix, keeping only the current piece.
+     */
+    private final class RecordsInputStream extends InputStream {
+
+        private int next = -1;
+        private boolean separatorPending;
+        private byte[] piece = format.prefix;
+        private int position;
+
+        @Override
+        public int read() {
+            if (!fill()) {
+                return -1;
+            }
+            return piece[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int read = Math.min(length, piece.length - position);
+            System.arraycopy(piece, position, target, offset, read);
+            position += read;
+            return read;
+        }
+
+        private boolean fill() {
+            while (piece != null && position >= piece.length) {
+                position = 0;
+                if (separatorPending) {
+                    separatorPending = false;
+                    piece = format.separator;
+                } else if (next < count) {
+                    next++;
+                    piece = next < count ? record(next) : format.suffix;
+                    separatorPending = next + 1 < count;
+                } else {
+                    piece = null;
+                }
+            }
+            return piece != null;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.vshpynta.mockserver;
+
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+/**
+ * Request paths given by {@link MockServerScenario#ignore()}: exact paths or Ant-style patterns, e.g. {@code /health}
+ * or {@code /metrics/**}. Exact paths are looked up in a hash set and patterns ending with {@code /**} are checked
+ * as prefixes, only other patterns are matched by {@link AntPathMatcher}.
+ */
+final class IgnoredPaths {
+
+    private static final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private static final String ANY_SUFFIX = "/**";
+
+    private final List<String> entries = new ArrayList<>();
+    private final Set<String> paths = new HashSet<>();
+    private final List<String> prefixes = new ArrayList<>();
+    private final List<String> patterns = new ArrayList<>();
+
+    private IgnoredPaths(String... ignore) {
+        for (String entry : ignore) {
+            if (isBlank(entry)) {
+                continue;
+            }
+            entries.add(entry);
+            if (!pathMatcher.isPattern(entry)) {
+                paths.add(entry);
+            } else if (entry.endsWith(ANY_SUFFIX) && !pathMatcher.isPattern(prefix(entry))) {
+                prefixes.add(prefix(entry));
+            } else {
+                patterns.add(entry);
+            }
+        }
+    }
+
+    static IgnoredPaths of(String... ignore) {
+        return new IgnoredPaths(ignore);
+    }
+
+    boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    boolean matches(String path) {
+        if (paths.contains(path)) {
+            return true;
+        }
+        for (String prefix : prefixes) {
+            if (path.startsWith(prefix) && (path.length() == prefix.length() || path.charAt(prefix.length()) == '/')) {
+                return true;
+            }
+        }
+        for (String pattern : patterns) {
+            if (pathMatcher.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Regular expressions matching the ignored paths under the given prefix, for WireMock URL path patterns.
+     */
+    List<String> toRegexes(String pathPrefix) {
+        List<String> regexes = new ArrayList<>(entries.size());
+        for (String entry : entries) {
+            regexes.add(Pattern.quote(pathPrefix) + toRegex(entry));
+        }
+        return regexes;
+    }
+
+    private static String prefix(String entry) {
+        return entry.substring(0, entry.length() - ANY_SUFFIX.length());
+    }
+
+    /**
+     * Translates the Ant-style pattern: {@code **} matches any number of segments, {@code *} and {@code ?} match
+     * within a segment, {@code {name}} matches a non-empty segment part and {@code {name:regex}} the regex.
+     * The pattern always starts a new segment, so it does not extend the last segment of a path prefix.
+     */
+    private static String toRegex(String pattern) {
+        StringBuilder regex = new StringBuilder();
+        String[] segments = pattern.split("/", -1);
+        for (int i = 0; i < segments.length; i++) {
+            if ("**".equals(segments[i])) {
+                regex.append("(/.*)?");
+                continue;
+            }
+            if (i > 0 || !segments[i].isEmpty()) {
+                regex.append('/');
+            }
+            int literalStart = 0;
+            for (int j = 0; j < segments[i].length(); j++) {
+                char c = segments[i].charAt(j);
+                int variableEnd = c == '{' ? variableEnd(segments[i], j) : -1;
+                if (c == '*' || c == '?' || variableEnd > 0) {
+                    if (j > literalStart) {
+                        regex.append(Pattern.quote(segments[i].substring(literalStart, j)));
+                    }
+                    if (variableEnd > 0) {
+                        String variable = segments[i].substring(j + 1, variableEnd);
+                        int separator = variable.indexOf(':');
+                        regex.append(separator < 0 ? "[^/]+" : "(?:" + variable.substring(separator + 1) + ")");
+                        j = variableEnd;
+                    } else {
+                        regex.append(c == '*' ? "[^/]*" : "[^/]");
+                    }
+                    literalStart = j + 1;
+                }
+            }
+            if (literalStart < segments[i].length()) {
+                regex.append(Pattern.quote(segments[i].substring(literalStart)));
+            }
+        }
+        return regex.toString();
+    }
+
+    /**
+     * Position of the brace closing the URI variable opened at the given position, nested braces of its regex
+     * included, -1 if it is not closed.
+     */
+    private static int variableEnd(String segment, int start) {
+        int depth = 0;
+        for (int i = start; i < segment.length(); i++) {
+            if (segment.charAt(i) == '{') {
+                depth++;
+            } else if (segment.charAt(i) == '}' && --depth == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,49 @@
+package com.vshpynta.mockserver;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.AsyncClientHttpRequestExecution;
+import org.springframework.http.client.AsyncClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.SettableListenableFuture;
+
+import java.io.IOException;
+
+/**
+ * Answers requests to {@link IgnoredPaths} with an empty {@code 200 OK} response before they reach the mock server,
+ * so they are neither matched against the expectations nor verified.
+ */
+@RequiredArgsConstructor
+final class IgnoredRequestInterceptor implements ClientHttpRequestInterceptor, AsyncClientHttpRequestInterceptor {
+
+    private static final byte[] EMPTY_BODY = new byte[0];
+
+    private final IgnoredPaths ignoredPaths;
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request,
+                                        byte[] body,
+                                        ClientHttpRequestExecution execution) throws IOException {
+        if (ignoredPaths.matches(request.getURI().getPath())) {
+            return new MockClientHttpResponse(EMPTY_BODY, HttpStatus.OK);
+        }
+        return execution.execute(request, body);
+    }
+
+    @Override
+    public ListenableFuture<ClientHttpResponse> intercept(HttpRequest request,
+                                                          byte[] body,
+                                                          AsyncClientHttpRequestExecution execution) throws IOException {
+        if (ignoredPaths.matches(request.getURI().getPath())) {
+            SettableListenableFuture<ClientHttpResponse> response = new SettableListenableFuture<>();
+            response.set(new MockClientHttpResponse(EMPTY_BODY, HttpStatus.OK));
+            return response;
+        }
+        return execution.executeAsync(request, body);
+    }
+}
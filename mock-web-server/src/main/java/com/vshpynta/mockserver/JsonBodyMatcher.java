@@ -0,0 +1,369 @@
+package com.vshpynta.mockserver;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.SneakyThrows;
+import org.skyscreamer.jsonassert.JSONCompareMode;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static com.fasterxml.jackson.core.JsonToken.END_ARRAY;
+import static com.fasterxml.jackson.core.JsonToken.FIELD_NAME;
+import static com.fasterxml.jackson.core.JsonToken.START_ARRAY;
+import static com.fasterxml.jackson.core.JsonToken.START_OBJECT;
+
+/**
+ * Structural JSON matcher. The expected document is parsed once, the actual one is compared while it is streamed
+ * by the tokenizer and the comparison stops at the first mismatch.
+ * <p>
+ * Follows {@link JSONCompareMode} semantics: an extensible mode allows fields not present in the expected document,
+ * a mode without strict order allows array elements in any order. Numbers are compared by their exact decimal value.
+ */
+public final class JsonBodyMatcher {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+
+    private final String expectedJson;
+    private final Node expected;
+    private final boolean extensible;
+    private final boolean strictOrder;
+
+    private JsonBodyMatcher(String expectedJson, JSONCompareMode mode) {
+        this.expectedJson = expectedJson;
+        this.extensible = mode.isExtensible();
+        this.strictOrder = mode.hasStrictOrder();
+        this.expected = compileNode(readTree(expectedJson));
+    }
+
+    public static JsonBodyMatcher compile(String expectedJson, JSONCompareMode mode) {
+        return new JsonBodyMatcher(expectedJson, mode);
+    }
+
+    public String getExpectedJson() {
+        return expectedJson;
+    }
+
+    public boolean matches(String actual) {
+        return mismatch(actual) == null;
+    }
+
+    /**
+     * @return description of the first mismatch or {@code null} if the actual document matches
+     */
+    public String mismatch(String actual) {
+        try (JsonParser parser = MAPPER.getFactory().createParser(actual)) {
+            return mismatch(parser);
+        } catch (IOException e) {
+            return "Actual body is not valid JSON: " + e.getMessage();
+        }
+    }
+
+    /**
+     * @return description of the first mismatch or {@code null} if the actual document matches
+     */
+    public String mismatch(byte[] actual) {
+        try (JsonParser parser = MAPPER.getFactory().createParser(actual)) {
+            return mismatch(parser);
+        } catch (IOException e) {
+            return "Actual body is not valid JSON: " + e.getMessage();
+        }
+    }
+
+    private String mismatch(JsonParser parser) throws IOException {
+        if (parser.nextToken() == null) {
+            return "Actual body is empty";
+        }
+        Mismatch mismatch = expected.match(parser);
+        return mismatch == null ? null : mismatch.toString();
+    }
+
+    @SneakyThrows
+    private static JsonNode readTree(String json) {
+        JsonNode node = MAPPER.readTree(json);
+        if (node == null) {
+            throw new IllegalArgumentException("Expected JSON is empty");
+        }
+        return node;
+    }
+
+    private Node compileNode(JsonNode node) {
+        if (node.isObject()) {
+            return new ObjectNode(node);
+        }
+        if (node.isArray()) {
+            return new ArrayNode(node);
+        }
+        return new ValueNode(node);
+    }
+
+    private static String describe(JsonParser parser) throws IOException {
+        JsonToken token = parser.getCurrentToken();
+        if (token == START_OBJECT) {
+            return "an object";
+        }
+        if (token == START_ARRAY) {
+            return "an array";
+        }
+        return parser.getText();
+    }
+
+    private abstract static class Node {
+
+        /**
+         * Compares the value the parser points to, leaving the parser at the last token of that value.
+         */
+        abstract Mismatch match(JsonParser parser) throws IOException;
+
+        abstract boolean matches(JsonNode actual);
+    }
+
+    private final class ObjectNode extends Node {
+
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private final String[] names;
+        private final Node[] values;
+
+        ObjectNode(JsonNode node) {
+            names = new String[node.size()];
+            values = new Node[node.size()];
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            for (int i = 0; fields.hasNext(); i++) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                indexes.put(field.getKey(), i);
+                names[i] = field.getKey();
+                values[i] = compileNode(field.getValue());
+            }
+        }
+
+        @Override
+        Mismatch match(JsonParser parser) throws IOException {
+            if (parser.getCurrentToken() != START_OBJECT) {
+                return new Mismatch("expected an object but was " + describe(parser));
+            }
+            boolean[] matched = new boolean[names.length];
+            while (parser.nextToken() == FIELD_NAME) {
+                String name = parser.getCurrentName();
+                parser.nextToken();
+                Integer index = indexes.get(name);
+                if (index == null) {
+                    if (!extensible) {
+                        return new Mismatch("unexpected field").field(name);
+                    }
+                    parser.skipChildren();
+                    continue;
+                }
+                Mismatch mismatch = values[index].match(parser);
+                if (mismatch != null) {
+                    return mismatch.field(name);
+                }
+                matched[index] = true;
+            }
+            for (int i = 0; i < matched.length; i++) {
+                if (!matched[i]) {
+                    return new Mismatch("missing field").field(names[i]);
+                }
+            }
+            return null;
+        }
+
+        @Override
+        boolean matches(JsonNode actual) {
+            if (!actual.isObject() || (!extensible && actual.size() != names.length)) {
+                return false;
+            }
+            for (int i = 0; i < names.length; i++) {
+                JsonNode value = actual.get(names[i]);
+                if (value == null || !values[i].matches(value)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private final class ArrayNode extends Node {
+
+        private final Node[] elements;
+
+        ArrayNode(JsonNode node) {
+            elements = new Node[node.size()];
+            for (int i = 0; i < elements.length; i++) {
+                elements[i] = compileNode(node.get(i));
+            }
+        }
+
+        @Override
+        Mismatch match(JsonParser parser) throws IOException {
+            if (parser.getCurrentToken() != START_ARRAY) {
+                return new Mismatch("expected an array but was " + describe(parser));
+            }
+            return strictOrder ? matchOrdered(parser) : matchUnordered(parser);
+        }
+
+        private Mismatch matchOrdered(JsonParser parser) throws IOException {
+            int size = 0;
+            while (parser.nextToken() != END_ARRAY) {
+                if (size >= elements.length) {
+                    return new Mismatch("expected " + elements.length + " elements but was more");
+                }
+                Mismatch mismatch = elements[size].match(parser);
+                if (mismatch != null) {
+                    return mismatch.element(size);
+                }
+                size++;
+            }
+            return size == elements.length ? null
+                    : new Mismatch("expected " + elements.length + " elements but was " + size);
+        }
+
+        private Mismatch matchUnordered(JsonParser parser) throws IOException {
+            List<JsonNode> actualElements = new ArrayList<>(elements.length);
+            while (parser.nextToken() != END_ARRAY) {
+                if (actualElements.size() >= elements.length) {
+                    return new Mismatch("expected " + elements.length + " elements but was more");
+                }
+                actualElements.add(MAPPER.readTree(parser));
+            }
+            if (actualElements.size() != elements.length) {
+                return new Mismatch("expected " + elements.length + " elements but was " + actualElements.size());
+            }
+            int index = unmatchedElement(actualElements);
+            return index < 0 ? null : new Mismatch("no matching element").element(index);
+        }
+
+        @Override
+        boolean matches(JsonNode actual) {
+            if (!actual.isArray() || actual.size() != elements.length) {
+                return false;
+            }
+            List<JsonNode> actualElements = new ArrayList<>(elements.length);
+            actual.forEach(actualElements::add);
+            if (strictOrder) {
+                for (int i = 0; i < elements.length; i++) {
+                    if (!elements[i].matches(actualElements.get(i))) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            return unmatchedElement(actualElements) < 0;
+        }
+
+        /**
+         * Pairs every expected element with a distinct actual one by augmenting paths, so an element matching
+         * several actual ones does not take the only pair of another element.
+         *
+         * @return index of the first expected element left without a pair or -1
+         */
+        private int unmatchedElement(List<JsonNode> actualElements) {
+            Boolean[][] matches = new Boolean[elements.length][actualElements.size()];
+            int[] pairs = new int[actualElements.size()];
+            Arrays.fill(pairs, -1);
+            for (int i = 0; i < elements.length; i++) {
+                if (!pair(i, actualElements, matches, pairs, new boolean[pairs.length])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private boolean pair(int element, List<JsonNode> actualElements, Boolean[][] matches, int[] pairs,
+                             boolean[] visited) {
+            for (int j = 0; j < pairs.length; j++) {
+                if (visited[j]) {
+                    continue;
+                }
+                if (matches[element][j] == null) {
+                    matches[element][j] = elements[element].matches(actualElements.get(j));
+                }
+                if (matches[element][j]) {
+                    visited[j] = true;
+                    if (pairs[j] < 0 || pair(pairs[j], actualElements, matches, pairs, visited)) {
+                        pairs[j] = element;
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class ValueNode extends Node {
+
+        private final JsonNode value;
+        private final BigDecimal number;
+
+        ValueNode(JsonNode value) {
+            this.value = value;
+            this.number = value.isNumber() ? value.decimalValue() : null;
+        }
+
+        @Override
+        Mismatch match(JsonParser parser) throws IOException {
+            JsonToken token = parser.getCurrentToken();
+            boolean equal;
+            if (value.isNumber()) {
+                equal = token.isNumeric() && number.compareTo(parser.getDecimalValue()) == 0;
+            } else if (value.isTextual()) {
+                equal = token == JsonToken.VALUE_STRING && value.textValue().equals(parser.getText());
+            } else if (value.isBoolean()) {
+                equal = token.isBoolean() && value.booleanValue() == parser.getBooleanValue();
+            } else {
+                equal = token == JsonToken.VALUE_NULL;
+            }
+            if (!equal) {
+                Mismatch mismatch = new Mismatch("expected " + value + " but was " + describe(parser));
+                parser.skipChildren();
+                return mismatch;
+            }
+            return null;
+        }
+
+        @Override
+        boolean matches(JsonNode actual) {
+            if (value.isNumber()) {
+                return actual.isNumber() && number.compareTo(actual.decimalValue()) == 0;
+            }
+            return value.equals(actual);
+        }
+    }
+
+    /**
+     * Mismatch description, its path is collected while the comparison unwinds.
+     */
+    private static final class Mismatch {
+
+        private final StringBuilder path = new StringBuilder();
+        private final String message;
+
+        Mismatch(String message) {
+            this.message = message;
+        }
+
+        Mismatch field(String name) {
+            path.insert(0, name).insert(0, '.');
+            return this;
+        }
+
+        Mismatch element(int index) {
+            path.insert(0, ']').insert(0, index).insert(0, '[');
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            return "$" + path + ": " + message;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.vshpynta.mockserver;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.github.tomakehurst.wiremock.matching.MatchResult;
+import com.github.tomakehurst.wiremock.matching.StringValuePattern;
+import org.skyscreamer.jsonassert.JSONCompareMode;
+
+/**
+ * WireMock request body pattern backed by {@link JsonBodyMatcher}, the expected document is parsed once per stub.
+ */
+public class JsonBodyPattern extends StringValuePattern {
+
+    private final JsonBodyMatcher matcher;
+
+    public JsonBodyPattern(@JsonProperty("matchesJsonStructure") String expectedJson, JSONCompareMode mode) {
+        super(expectedJson);
+        this.matcher = JsonBodyMatcher.compile(expectedJson, mode);
+    }
+
+    public static JsonBodyPattern matchingJson(String expectedJson, JSONCompareMode mode) {
+        return new JsonBodyPattern(expectedJson, mode);
+    }
+
+    @Override
+    public MatchResult match(String value) {
+        return MatchResult.of(value != null && matcher.matches(value));
+    }
+}
@@ -0,0 +1,87 @@
+package com.vshpynta.mockserver;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+/**
+ * Encodes lines as UTF-8 bytes separated by line feeds, pulling the next line only when the previous one is read.
+ * Stops at the first blank line, as the body parsers do.
+ */
+final class LineInputStream extends InputStream {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final Iterator<String> lines;
+    private final Closeable source;
+
+    private byte[] current = EMPTY;
+    private int position;
+    private boolean separatorPending;
+    private boolean finished;
+
+    LineInputStream(Iterator<String> lines, Closeable source) {
+        this.lines = lines;
+        this.source = source;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+        if (separatorPending) {
+            separatorPending = false;
+            return '\n';
+        }
+        return current[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] target, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        int read = 0;
+        while (read < length && fill()) {
+            if (separatorPending) {
+                separatorPending = false;
+                target[offset + read++] = '\n';
+                continue;
+            }
+            int count = Math.min(length - read, current.length - position);
+            System.arraycopy(current, position, target, offset + read, count);
+            position += count;
+            read += count;
+        }
+        return read == 0 ? -1 : read;
+    }
+
+    @Override
+    public void close() throws IOException {
+        finished = true;
+        source.close();
+    }
+
+    private boolean fill() {
+        while (!separatorPending && position == current.length) {
+            if (finished || !lines.hasNext()) {
+                finished = true;
+                return false;
+            }
+            String line = lines.next();
+            if (isBlank(line)) {
+                finished = true;
+                return false;
+            }
+            separatorPending = current != EMPTY;
+            current = line.getBytes(UTF_8);
+            position = 0;
+        }
+        return true;
+    }
+}
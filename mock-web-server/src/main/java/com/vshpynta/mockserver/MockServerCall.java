@@ -1,26 +1,41 @@
 package com.vshpynta.mockserver;
 
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.SneakyThrows;
+import lombok.ToString;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 
 import java.net.URI;
 
+import static lombok.AccessLevel.NONE;
+
 /**
  * Model to keep request and response data.
+ * Bodies are left out of {@code equals}, {@code hashCode} and {@code toString}, which would load streamed bodies.
  */
 @Data
+@EqualsAndHashCode(exclude = {"requestBody", "responseBody"})
+@ToString(exclude = {"requestBody", "responseBody"})
 public class MockServerCall {
     private String requestHost;
     private String requestPath;
     private HttpMethod requestMethod;
     private HttpHeaders requestHeaders = new HttpHeaders();
-    private String requestBody;
+    @Getter(NONE)
+    @Setter(NONE)
+    private MockServerCallBody requestBody;
     private HttpStatus responseStatus;
     private HttpHeaders responseHeaders = new HttpHeaders();
-    private String responseBody;
+    @Getter(NONE)
+    @Setter(NONE)
+    private MockServerCallBody responseBody;
+    private ResponseProfile responseProfile = new ResponseProfile();
+    private ScenarioStep scenarioStep;
 
     @SneakyThrows
     public URI getUri() {
@@ -28,19 +43,68 @@ public class MockServerCall {
 
     }
 
+    public String getRequestBody() {
+        return requestBody == null ? null : requestBody.asString();
+    }
+
+    public byte[] getRequestBodyBytes() {
+        return requestBody == null ? null : requestBody.toByteArray();
+    }
+
+    public MockServerCallBody getRequestBodyContent() {
+        return requestBody;
+    }
+
+    public void setRequestBodyContent(MockServerCallBody body) {
+        requestBody = body;
+    }
+
+    public void setRequestBody(String body) {
+        requestBody = body == null ? null : MockServerCallBody.of(body);
+    }
+
+    public void setRequestBody(byte[] body) {
+        requestBody = body == null ? null : MockServerCallBody.of(body);
+    }
+
+    public String getResponseBody() {
+        return responseBody == null ? null : responseBody.asString();
+    }
+
+    public byte[] getResponseBodyBytes() {
+        return responseBody == null ? null : responseBody.toByteArray();
+    }
+
+    public MockServerCallBody getResponseBodyContent() {
+        return responseBody;
+    }
+
+    public void setResponseBodyContent(MockServerCallBody body) {
+        responseBody = body;
+    }
+
+    public void setResponseBody(String body) {
+        responseBody = body == null ? null : MockServerCallBody.of(body);
+    }
+
+    public void setResponseBody(byte[] body) {
+        responseBody = body == null ? null : MockServerCallBody.of(body);
+    }
+
     public void appendRequestBody(String line) {
         if (requestBody == null) {
-            requestBody = line;
-        } else {
-            requestBody += "\n" + line;
+            requestBody = new MockServerCallBody();
         }
+        requestBody.appendLine(line);
     }
 
     public void appendResponseBody(String line) {
+        if (responseBody != null && responseBody.isStreamed()) {
+            throw new IllegalStateException("Response body is streamed, lines cannot be appended to it: " + line);
+        }
         if (responseBody == null) {
-            responseBody = line;
-        } else {
-            responseBody += "\n" + line;
+            responseBody = new MockServerCallBody();
         }
+        responseBody.appendLine(line);
     }
 }
@@ -0,0 +1,221 @@
+package com.vshpynta.mockserver;
+
+import lombok.SneakyThrows;
+import org.apache.commons.io.IOUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Request or response body kept as UTF-8 bytes in a growable buffer.
+ * The final byte array and string are produced once, when they are requested first.
+ * <p>
+ * A streamed body is read from its {@link Source} on demand: {@link #openStream()} and {@link #writeTo(OutputStream)}
+ * never hold the whole content, other methods load it into memory once.
+ * <p>
+ * Parsed calls are shared by concurrently matched requests, so the body is guarded by its own lock:
+ * loading and the cached array and string are safe to use from any thread.
+ */
+public final class MockServerCallBody {
+
+    private static final int INITIAL_CAPACITY = 256;
+    private static final byte LINE_SEPARATOR = '\n';
+
+    private Source source;
+    private byte[] buffer;
+    private int size;
+    private boolean hasLines;
+    private byte[] bytes;
+    private String string;
+
+    public MockServerCallBody() {
+        this.buffer = new byte[INITIAL_CAPACITY];
+    }
+
+    private MockServerCallBody(byte[] bytes) {
+        this.buffer = bytes;
+        this.size = bytes.length;
+        this.hasLines = bytes.length > 0;
+        this.bytes = bytes;
+    }
+
+    public static MockServerCallBody of(String body) {
+        MockServerCallBody callBody = new MockServerCallBody(body.getBytes(UTF_8));
+        callBody.string = body;
+        return callBody;
+    }
+
+    /**
+     * Body of a copy of the bytes, so the caller may reuse its array.
+     */
+    public static MockServerCallBody of(byte[] body) {
+        return new MockServerCallBody(body.clone());
+    }
+
+    public static MockServerCallBody streamed(Source source) {
+        MockServerCallBody callBody = new MockServerCallBody(new byte[0]);
+        callBody.source = source;
+        return callBody;
+    }
+
+    public synchronized boolean isStreamed() {
+        return source != null;
+    }
+
+    /**
+     * Source of a streamed body, {@code null} once the body is loaded.
+     */
+    synchronized Source getSource() {
+        return source;
+    }
+
+    /**
+     * Appends the line, separating it from the previous one with a line feed.
+     */
+    public synchronized MockServerCallBody appendLine(String line) {
+        load();
+        if (hasLines) {
+            ensureCapacity(size + 1);
+            buffer[size++] = LINE_SEPARATOR;
+        }
+        hasLines = true;
+        byte[] lineBytes = line.getBytes(UTF_8);
+        return append(lineBytes, 0, lineBytes.length);
+    }
+
+    public synchronized MockServerCallBody append(byte[] content, int offset, int length) {
+        load();
+        ensureCapacity(size + length);
+        System.arraycopy(content, offset, buffer, size, length);
+        size += length;
+        hasLines = true;
+        return this;
+    }
+
+    public synchronized int size() {
+        load();
+        return size;
+    }
+
+    /**
+     * Size in bytes; unlike {@link #size()}, a streamed body is measured by its source instead of being loaded.
+     */
+    @SneakyThrows
+    public long length() {
+        Source streamed = getSource();
+        return streamed != null ? streamed.size() : size();
+    }
+
+    /**
+     * Copy of the content, the caller may modify it.
+     */
+    public byte[] toByteArray() {
+        return bytes().clone();
+    }
+
+    /**
+     * Content in an array shared by all callers, which must not modify it.
+     */
+    synchronized byte[] bytes() {
+        load();
+        if (bytes == null) {
+            bytes = size == buffer.length ? buffer : Arrays.copyOf(buffer, size);
+        }
+        return bytes;
+    }
+
+    public synchronized String asString() {
+        load();
+        if (string == null) {
+            string = new String(buffer, 0, size, UTF_8);
+        }
+        return string;
+    }
+
+    public synchronized String asString(Charset charset) {
+        load();
+        return UTF_8.equals(charset) ? asString() : new String(buffer, 0, size, charset);
+    }
+
+    public InputStream openStream() throws IOException {
+        Source streamed = getSource();
+        return streamed != null ? streamed.open() : new ByteArrayInputStream(bytes());
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        Source streamed = getSource();
+        if (streamed != null) {
+            try (InputStream in = streamed.open()) {
+                IOUtils.copyLarge(in, out);
+            }
+        } else {
+            out.write(bytes());
+        }
+    }
+
+    @SneakyThrows
+    private void load() {
+        if (source != null) {
+            try (InputStream in = source.open()) {
+                bytes = IOUtils.toByteArray(in);
+            }
+            buffer = bytes;
+            size = bytes.length;
+            hasLines = size > 0;
+            source = null;
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > buffer.length || bytes == buffer) {
+            buffer = Arrays.copyOf(buffer, Math.max(capacity, buffer.length << 1));
+        }
+        bytes = null;
+        string = null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MockServerCallBody)) {
+            return false;
+        }
+        return Arrays.equals(bytes(), ((MockServerCallBody) o).bytes());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(bytes());
+    }
+
+    @Override
+    public String toString() {
+        return asString();
+    }
+
+    /**
+     * Opens the content of a streamed body, every call starts from the beginning.
+     */
+    @FunctionalInterface
+    public interface Source {
+
+        InputStream open() throws IOException;
+
+        /**
+         * Size of the content in bytes, counted by reading it through unless the source knows it.
+         */
+        default long size() throws IOException {
+            try (InputStream in = open()) {
+                return IOUtils.skip(in, Long.MAX_VALUE);
+            }
+        }
+    }
+}
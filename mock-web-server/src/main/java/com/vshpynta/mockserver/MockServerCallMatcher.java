@@ -0,0 +1,197 @@
+package com.vshpynta.mockserver;
+
+import org.skyscreamer.jsonassert.JSONCompareMode;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import static com.vshpynta.mockserver.UriParser.parseUriQuery;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.commons.lang3.StringUtils.isBlank;
+import static org.springframework.http.MediaType.APPLICATION_FORM_URLENCODED;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.http.MediaType.APPLICATION_JSON_UTF8;
+
+/**
+ * Request matcher compiled once from an expected {@link MockServerCall}: host, path, query parameters, headers and
+ * body predicate are prepared ahead, so matching a request does no parsing.
+ */
+public final class MockServerCallMatcher {
+
+    private final MockServerCall expectedCall;
+    private final URI expectedUri;
+    private final String host;
+    private final String path;
+    private final String[] querySegments;
+    private final String[] queryKeys;
+    private final HttpMethod method;
+    private final String[] headerNames;
+    private final List<List<String>> headerValues;
+    private final BodyMatcher bodyMatcher;
+
+    private MockServerCallMatcher(MockServerCall expectedCall) {
+        this.expectedCall = expectedCall;
+        this.expectedUri = expectedCall.getUri();
+        this.host = expectedUri.getHost();
+        this.path = expectedUri.getPath();
+        Map<String, String> query = parseUriQuery(expectedUri.getQuery());
+        this.querySegments = new String[query.size()];
+        this.queryKeys = new String[query.size()];
+        int i = 0;
+        for (Map.Entry<String, String> parameter : query.entrySet()) {
+            queryKeys[i] = parameter.getValue().isEmpty() ? parameter.getKey() : null;
+            querySegments[i++] = parameter.getKey() + "=" + parameter.getValue();
+        }
+        this.method = expectedCall.getRequestMethod();
+        HttpHeaders expectedHeaders = expectedCall.getRequestHeaders();
+        this.headerNames = expectedHeaders.keySet().toArray(new String[0]);
+        this.headerValues = new ArrayList<>(headerNames.length);
+        for (String headerName : headerNames) {
+            headerValues.add(new ArrayList<>(expectedHeaders.get(headerName)));
+        }
+        this.bodyMatcher = compileBodyMatcher(expectedCall);
+    }
+
+    public static MockServerCallMatcher compile(MockServerCall expectedCall) {
+        return new MockServerCallMatcher(expectedCall);
+    }
+
+    public MockServerCall getExpectedCall() {
+        return expectedCall;
+    }
+
+    /**
+     * Matches the request against the expected call.
+     *
+     * @param body supplies request body, is called only if the expected call has a body
+     * @return description of the first mismatch or {@code null} if the request matches
+     */
+    public String mismatch(HttpMethod requestMethod, URI uri, HttpHeaders headers, Supplier<byte[]> body) {
+        if (!Objects.equals(host, uri.getHost())) {
+            return unexpected("Unexpected request host", host, uri.getHost());
+        }
+        return mismatch(requestMethod, uri, headers, body, false);
+    }
+
+    /**
+     * Matches the request like a WireMock stub of the expected call, for servers the client is pointed to directly:
+     * the host is not matched and every expected header value only needs to be contained in an actual one.
+     *
+     * @param body supplies request body, is called only if the expected call has a body
+     * @return description of the first mismatch or {@code null} if the request matches
+     */
+    public String serverMismatch(HttpMethod requestMethod, URI uri, HttpHeaders headers, Supplier<byte[]> body) {
+        return mismatch(requestMethod, uri, headers, body, true);
+    }
+
+    private String mismatch(HttpMethod requestMethod, URI uri, HttpHeaders headers, Supplier<byte[]> body,
+                            boolean containingHeaders) {
+        if (!Objects.equals(path, uri.getPath())) {
+            return unexpected("Unexpected request path", path, uri.getPath());
+        }
+        if (!containsQuery(uri.getQuery())) {
+            return format("Unexpected request query parameters expected:<%s> but was:<%s>", expectedUri, uri);
+        }
+        if (method != requestMethod) {
+            return unexpected("Unexpected HttpMethod", method, requestMethod);
+        }
+        for (int i = 0; i < headerNames.length; i++) {
+            List<String> actualValues = headers.get(headerNames[i]);
+            boolean matches = containingHeaders ? containsValues(actualValues, headerValues.get(i))
+                    : headerValues.get(i).equals(actualValues);
+            if (!matches) {
+                return unexpected("Unexpected request header", headerValues.get(i), actualValues);
+            }
+        }
+        return bodyMatcher == null ? null : bodyMatcher.mismatch(body.get());
+    }
+
+    private static boolean containsValues(List<String> actualValues, List<String> expectedValues) {
+        if (actualValues == null) {
+            return false;
+        }
+        for (String expectedValue : expectedValues) {
+            if (actualValues.stream().noneMatch(actualValue -> actualValue.contains(expectedValue))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean containsQuery(String query) {
+        for (int i = 0; i < querySegments.length; i++) {
+            if (!containsQuerySegment(query, querySegments[i]) && (queryKeys[i] == null || !containsQuerySegment(query, queryKeys[i]))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean containsQuerySegment(String query, String segment) {
+        if (query == null) {
+            return false;
+        }
+        int start = 0;
+        while (start <= query.length()) {
+            int end = query.indexOf('&', start);
+            if (end < 0) {
+                end = query.length();
+            }
+            if (end - start == segment.length() && query.regionMatches(start, segment, 0, segment.length())) {
+                return true;
+            }
+            start = end + 1;
+        }
+        return false;
+    }
+
+    private static String unexpected(String message, Object expected, Object actual) {
+        return message + " expected:<" + expected + "> but was:<" + actual + ">";
+    }
+
+    private static BodyMatcher compileBodyMatcher(MockServerCall expectedCall) {
+        String expectedContent = expectedCall.getRequestBody();
+        if (isBlank(expectedContent)) {
+            return null;
+        }
+        MediaType contentType = expectedCall.getRequestHeaders().getContentType();
+        if (APPLICATION_FORM_URLENCODED.equals(contentType)) {
+            FormDataMatcher formMatcher = FormDataMatcher.compile(expectedContent);
+            return body -> {
+                String actualContent = new String(body, UTF_8);
+                return formMatcher.matches(actualContent) ? null
+                        : format("Unexpected request body expected:<%s> but was:<%s>", expectedContent, actualContent);
+            };
+        }
+        if (APPLICATION_JSON.equals(contentType) || APPLICATION_JSON_UTF8.equals(contentType)) {
+            JsonBodyMatcher jsonMatcher = JsonBodyMatcher.compile(expectedContent, JSONCompareMode.LENIENT);
+            return body -> {
+                String mismatch = jsonMatcher.mismatch(body);
+                return mismatch == null ? null : format("Unexpected request body expected:<%s> but was:<%s> (%s)",
+                        expectedContent, new String(body, UTF_8), mismatch);
+            };
+        }
+        return body -> {
+            String actualContent = new String(body, UTF_8);
+            return expectedContent.equals(actualContent) ? null
+                    : unexpected("Request content", expectedContent, actualContent);
+        };
+    }
+
+    /**
+     * Compiled request body predicate.
+     */
+    @FunctionalInterface
+    private interface BodyMatcher {
+
+        String mismatch(byte[] body);
+    }
+}
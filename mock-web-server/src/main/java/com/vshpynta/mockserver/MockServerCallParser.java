@@ -6,22 +6,33 @@ import org.apache.commons.io.IOUtils;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
-import java.util.ArrayList;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
-import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
 
 import static java.util.Arrays.asList;
 import static org.apache.commons.lang3.StringUtils.isBlank;
+import static org.apache.commons.lang3.StringUtils.substringAfter;
+import static org.apache.commons.lang3.StringUtils.substringBefore;
 
 /**
  * Reads data from text file into Mock Server model.
+ * Scenario files are compiled into templates once and cached by resource name, lines are read lazily.
+ * A file precompiled by {@link ScenarioCompiler} is loaded instead of its text, unless the text is newer, its
+ * modification time cannot be compared or the compiled file has another format version.
  */
 @UtilityClass
 public class MockServerCallParser {
@@ -43,7 +54,7 @@ public class MockServerCallParser {
             },
             //request host
             (line, call) -> {
-                call.setRequestHost(line.split(": ")[1].trim());
+                call.setRequestHost(substringAfter(line, ": ").trim());
                 return Result.NEXT_LINE_NEXT_PARSER;
             },
             //request headers
@@ -51,8 +62,7 @@ public class MockServerCallParser {
                 if (isBlank(line)) {
                     return Result.NEXT_LINE_NEXT_PARSER;
                 }
-                String[] parts = line.split(": ");
-                call.getRequestHeaders().add(parts[0].trim(), parts[1].trim());
+                call.getRequestHeaders().add(substringBefore(line, ": ").trim(), substringAfter(line, ": ").trim());
                 return Result.NEXT_LINE;
             },
             //request body
@@ -77,83 +87,183 @@ public class MockServerCallParser {
                 if (isBlank(line)) {
                     return Result.NEXT_LINE_NEXT_PARSER;
                 }
-                String[] parts = line.split(": ");
-                call.getResponseHeaders().add(parts[0].trim(), parts[1].trim());
-                return Result.NEXT_LINE;
-            },
-            //response body
-            (line, call) -> {
-                if (isBlank(line)) {
-                    return Result.NEXT_LINE_NEXT_PARSER;
-                }
-                call.appendResponseBody(line);
+                call.getResponseHeaders().add(substringBefore(line, ": ").trim(), substringAfter(line, ": ").trim());
                 return Result.NEXT_LINE;
             }
     );
 
-    @SneakyThrows
+    /**
+     * Files bigger than this are not cached as templates, they are parsed straight from the resource
+     * and their response bodies are streamed from it on demand.
+     */
+    static final long MAX_TEMPLATE_SIZE = 1024 * 1024;
+
+    private static final Map<String, ScenarioTemplate> templates = new ConcurrentHashMap<>();
+
     public static MockServerCall parseFile(String scenarioFileName, Map<String, Object> context) {
-        return Optional.ofNullable(MockServerCallParser.class.getClassLoader().getResourceAsStream(scenarioFileName))
-                .map(is -> parseFile(is, context))
-                .orElseThrow(() -> new IllegalArgumentException("Cannot parse mock server call file: " + scenarioFileName));
+        ScenarioTemplate template = templates.get(scenarioFileName);
+        if (template != null) {
+            return template.bind(context);
+        }
+        ClassLoader classLoader = MockServerCallParser.class.getClassLoader();
+        URL resource = classLoader.getResource(scenarioFileName);
+        URL compiled = classLoader.getResource(scenarioFileName + ScenarioBinaryFormat.EXTENSION);
+        if (compiled != null && !isOutdated(compiled, resource)) {
+            return templates.computeIfAbsent(scenarioFileName, name -> readCompiledTemplate(compiled)).bind(context);
+        }
+        if (resource == null) {
+            throw new IllegalArgumentException("Cannot parse mock server call file: " + scenarioFileName);
+        }
+        return parseFile(scenarioFileName, resource, context);
+    }
+
+    /**
+     * Parses scenario file outside of the classpath, its template is cached by URL.
+     */
+    public static MockServerCall parseFile(URL scenarioFile, Map<String, Object> context) {
+        String key = scenarioFile.toExternalForm();
+        ScenarioTemplate template = templates.get(key);
+        if (template != null) {
+            return template.bind(context);
+        }
+        return parseFile(key, scenarioFile, context);
+    }
+
+    /**
+     * Drops the cached templates, so each file is read again when it is parsed next.
+     */
+    public static void clearCache() {
+        templates.clear();
+    }
+
+    private static MockServerCall parseFile(String key, URL resource, Map<String, Object> context) {
+        if (resourceSize(resource) > MAX_TEMPLATE_SIZE) {
+            return parseStreaming(resource, context);
+        }
+        return templates.computeIfAbsent(key, name -> loadTemplate(resource)).bind(context);
     }
 
     @SneakyThrows
-    private static MockServerCall parseFile(InputStream scenarioFile, Map<String, Object> context) {
-        try (Reader reader = new InputStreamReader(scenarioFile)) {
-            final Iterator<BiFunction<String, MockServerCall, Result>> parsers = lineParsers.iterator();
-            final Iterator<String> lines = Optional.of(reader)
-                    .map(MockServerCallParser::readLines)
-                    .map(list -> prepareLines(list, context))
-                    .map(List::iterator)
-                    .orElseThrow(() -> new IllegalArgumentException("Cannot parse mock server call file"));
-            final MockServerCall call = new MockServerCall();
-            BiFunction<String, MockServerCall, Result> parser = parsers.next();
-            String line = nextLine(lines);
-            while (line != null) {
-                Result result = parser.apply(line, call);
-                if (!Result.NEXT_LINE.equals(result)) {
-                    parser = parsers.next();
-                }
-                if (!Result.NEXT_PARSER.equals(result)) {
-                    line = nextLine(lines);
-                }
+    private static ScenarioTemplate loadTemplate(URL resource) {
+        try (Reader reader = openReader(resource)) {
+            return ScenarioTemplate.compile(resource.toString(), IOUtils.lineIterator(reader));
+        }
+    }
+
+    /**
+     * Reads template precompiled by {@link ScenarioCompiler}.
+     */
+    @SneakyThrows
+    private static ScenarioTemplate readCompiledTemplate(URL compiled) {
+        try (InputStream in = compiled.openStream()) {
+            return ScenarioTemplate.read(IOUtils.toByteArray(in));
+        }
+    }
+
+    /**
+     * Compiled file is outdated if it has another format version or its text source was modified after
+     * the compilation, a file or a jar entry whose time is unknown is taken as modified.
+     */
+    @SneakyThrows
+    static boolean isOutdated(URL compiled, URL resource) {
+        try (DataInputStream in = new DataInputStream(compiled.openStream())) {
+            if (!ScenarioBinaryFormat.isSupported(in)) {
+                return resource != null;
             }
-            return call;
         }
+        if (resource == null) {
+            return false;
+        }
+        long resourceModified = lastModified(resource);
+        long compiledModified = lastModified(compiled);
+        return resourceModified == 0 || compiledModified == 0 || resourceModified > compiledModified;
     }
 
-    private static List<String> prepareLines(List<String> lines, Map<String, Object> context) {
-        List<String> preparedLines = new ArrayList<>();
-        boolean lastEmpty = true;
-        for (String line : lines) {
-            if (line.startsWith("#")) {
-                continue;
+    /**
+     * Modification time of a file or a jar entry, 0 if unknown.
+     */
+    @SneakyThrows
+    private static long lastModified(URL resource) {
+        if ("file".equals(resource.getProtocol())) {
+            return new File(resource.toURI()).lastModified();
+        }
+        URLConnection connection = resource.openConnection();
+        if (connection instanceof JarURLConnection) {
+            return Math.max(0, ((JarURLConnection) connection).getJarEntry().getTime());
+        }
+        return connection.getLastModified();
+    }
+
+    @SneakyThrows
+    private static MockServerCall parseStreaming(URL resource, Map<String, Object> context) {
+        final Map<String, Object> boundContext = new HashMap<>(context);
+        final MockServerCall call = new MockServerCall();
+        try (Reader reader = openReader(resource)) {
+            ScenarioLines lines = new ScenarioLines(IOUtils.lineIterator(reader), boundContext);
+            String bodyLine;
+            try {
+                bodyLine = parse(lines, call);
+            } catch (IllegalArgumentException e) {
+                throw ScenarioDirectives.invalidLine(resource.toString(), lines.getLineNumber(), e);
             }
-            boolean emptyLine = isBlank(line);
-            if (!emptyLine || !lastEmpty) {
-                preparedLines.add(applyContextParameters(line, context));
+            if (!isBlank(bodyLine)) {
+                if (call.getResponseBodyContent() != null) {
+                    throw new IllegalStateException("Response body is streamed, lines cannot be appended to it: " + bodyLine);
+                }
+                int bodyLineNumber = lines.getLineNumber();
+                call.setResponseBodyContent(MockServerCallBody.streamed(
+                        new ScenarioFileBody(resource, bodyLineNumber, boundContext)));
             }
-            lastEmpty = emptyLine;
         }
-        return preparedLines;
+        return call;
     }
 
-    private static String applyContextParameters(String line, Map<String, Object> context) {
-        for (Map.Entry<String, Object> entry : context.entrySet()) {
-            line = line.replace("${" + entry.getKey() + "}",
-                    Objects.toString(entry.getValue(), ""));
+    /**
+     * Runs the line parsers over the lines up to the response body.
+     *
+     * @return the first line of the response body
+     */
+    private static String parse(Iterator<String> lines, MockServerCall call) {
+        int parsersCount = lineParsers.size();
+        int parser = 0;
+        String line = nextLine(lines);
+        while (line != null && parser < parsersCount) {
+            if (parser == 0 && (isBlank(line) || ScenarioDirectives.isDirective(line))) {
+                if (!isBlank(line)) {
+                    ScenarioDirectives.apply(line, call);
+                }
+                line = nextLine(lines);
+                continue;
+            }
+            Result result = lineParsers.get(parser).apply(line, call);
+            if (!Result.NEXT_LINE.equals(result)) {
+                parser++;
+            }
+            if (!Result.NEXT_PARSER.equals(result)) {
+                line = nextLine(lines);
+            }
         }
         return line;
     }
 
-    private static String nextLine(Iterator<String> lines) {
-        return lines.hasNext() ? lines.next() : null;
+    private static Reader openReader(URL resource) throws IOException {
+        return new BufferedReader(new InputStreamReader(resource.openStream()));
     }
 
     @SneakyThrows
-    private static List<String> readLines(Reader reader) {
-        return IOUtils.readLines(reader);
+    private static long resourceSize(URL resource) {
+        if ("file".equals(resource.getProtocol())) {
+            return new File(resource.toURI()).length();
+        }
+        URLConnection connection = resource.openConnection();
+        if (connection instanceof JarURLConnection) {
+            return ((JarURLConnection) connection).getJarEntry().getSize();
+        }
+        return -1;
+    }
+
+    private static String nextLine(Iterator<String> lines) {
+        return lines.hasNext() ? lines.next() : null;
     }
 
 }
@@ -0,0 +1,81 @@
+package com.vshpynta.mockserver;
+
+import lombok.SneakyThrows;
+import lombok.experimental.UtilityClass;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+/**
+ * Writes Mock Server model into the text format read by {@link MockServerCallParser}.
+ * <p>
+ * The format cannot express every body: blank body lines are dropped, since a blank line ends a body,
+ * {@code ${} is escaped as {@code $${}, so it is not taken for a placeholder, and lines starting with {@code #}
+ * or {@code HTTP} are indented by a space, so they are not taken for comments or for the response status line.
+ */
+@UtilityClass
+public class MockServerCallWriter {
+
+    private static final String HTTP_VERSION = "HTTP/1.1";
+    private static final String HTTP_PREFIX = "HTTP";
+
+    public static String toText(MockServerCall call) {
+        StringBuilder text = new StringBuilder();
+        write(call, text);
+        return text.toString();
+    }
+
+    @SneakyThrows
+    public static void write(MockServerCall call, Appendable out) {
+        out.append(call.getRequestMethod().name()).append(' ').append(call.getRequestPath())
+                .append(' ').append(HTTP_VERSION).append('\n');
+        out.append("Host: ").append(call.getRequestHost()).append('\n');
+        writeHeaders(call.getRequestHeaders(), out);
+        out.append('\n');
+        if (writeBody(call.getRequestBody(), out)) {
+            out.append('\n');
+        }
+        out.append(HTTP_VERSION).append(' ').append(String.valueOf(call.getResponseStatus().value()))
+                .append(' ').append(call.getResponseStatus().getReasonPhrase()).append('\n');
+        writeHeaders(call.getResponseHeaders(), out);
+        out.append('\n');
+        writeBody(call.getResponseBody(), out);
+    }
+
+    private static void writeHeaders(HttpHeaders headers, Appendable out) throws IOException {
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            for (String value : header.getValue()) {
+                out.append(header.getKey()).append(": ").append(value).append('\n');
+            }
+        }
+    }
+
+    /**
+     * @return whether anything was written
+     */
+    private static boolean writeBody(String body, Appendable out) throws IOException {
+        if (isBlank(body)) {
+            return false;
+        }
+        int start = 0;
+        while (start <= body.length()) {
+            int end = body.indexOf('\n', start);
+            if (end < 0) {
+                end = body.length();
+            }
+            String line = body.substring(start, end > start && body.charAt(end - 1) == '\r' ? end - 1 : end);
+            if (!isBlank(line)) {
+                if (line.startsWith("#") || line.startsWith(HTTP_PREFIX)) {
+                    out.append(' ');
+                }
+                out.append(line.replace("${", "$${")).append('\n');
+            }
+            start = end + 1;
+        }
+        return true;
+    }
+}
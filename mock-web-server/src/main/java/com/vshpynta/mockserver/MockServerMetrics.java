@@ -0,0 +1,71 @@
+package com.vshpynta.mockserver;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.lang.String.format;
+
+/**
+ * Per-scenario metrics collected by a mock server rule during a test. Are reset when the next test starts,
+ * so they can be read in the test itself or in its {@code @After} methods.
+ */
+public final class MockServerMetrics {
+
+    private final Map<String, ScenarioMetrics> scenarios = new ConcurrentHashMap<>();
+
+    /**
+     * @return metrics of the scenario file or {@code null} if no request was matched against it
+     */
+    public ScenarioMetrics get(String scenario) {
+        return scenarios.get(scenario);
+    }
+
+    /**
+     * @return metrics of all scenarios, the slowest to match first
+     */
+    public List<ScenarioMetrics> getScenarios() {
+        List<ScenarioMetrics> metrics = new ArrayList<>(scenarios.values());
+        metrics.sort(Comparator.comparing((ScenarioMetrics scenario) -> scenario.getMatchTime().getTotal())
+                .thenComparing(scenario -> scenario.getResponseTime().getTotal())
+                .reversed());
+        return metrics;
+    }
+
+    public boolean isEmpty() {
+        return scenarios.isEmpty();
+    }
+
+    public void reset() {
+        scenarios.clear();
+    }
+
+    /**
+     * Table of hits, match attempts and timings of all scenarios, the slowest to match first.
+     * Timings not measured, e.g. of scenarios served by WireMock, are shown as {@code -}.
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder(format("%-48s %8s %8s %12s %12s %12s %12s",
+                "scenario", "hits", "attempts", "match p50", "match p99", "response p50", "response p99"));
+        for (ScenarioMetrics scenario : getScenarios()) {
+            report.append(format("%n%-48s %8d %8d %12s %12s %12s %12s", scenario.getScenario(),
+                    scenario.getHits(), scenario.getMatchAttempts(),
+                    micros(scenario.getMatchTime(), 50), micros(scenario.getMatchTime(), 99),
+                    micros(scenario.getResponseTime(), 50), micros(scenario.getResponseTime(), 99)));
+        }
+        return report.toString();
+    }
+
+    ScenarioMetrics scenario(String scenario) {
+        return scenarios.computeIfAbsent(scenario, ScenarioMetrics::new);
+    }
+
+    private static String micros(LatencyHistogram histogram, double percentile) {
+        if (histogram.getCount() == 0) {
+            return "-";
+        }
+        return format("%.1f us", histogram.getPercentile(percentile).toNanos() / 1000.0);
+    }
+}
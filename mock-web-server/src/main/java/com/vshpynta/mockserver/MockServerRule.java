@@ -1,54 +1,96 @@
 package com.vshpynta.mockserver;
 
+import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
-import org.json.JSONException;
+import lombok.extern.slf4j.Slf4j;
 import org.junit.rules.TestRule;
 import org.junit.runner.Description;
 import org.junit.runners.model.Statement;
-import org.skyscreamer.jsonassert.JSONAssert;
-import org.skyscreamer.jsonassert.JSONCompareMode;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.AsyncClientHttpRequestInterceptor;
 import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
 import org.springframework.test.web.client.MockRestServiceServer;
-import org.springframework.test.web.client.RequestMatcher;
 import org.springframework.test.web.client.ResponseCreator;
-import org.springframework.test.web.client.match.MockRestRequestMatchers;
 import org.springframework.test.web.client.response.DefaultResponseCreator;
+import org.springframework.web.client.AsyncRestTemplate;
 import org.springframework.web.client.RestTemplate;
 
 import java.io.IOException;
-import java.net.URI;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 
 import static com.vshpynta.mockserver.MockServerCallParser.parseFile;
-import static com.vshpynta.mockserver.UriParser.parseUriQuery;
-import static java.lang.String.format;
-import static java.util.Arrays.asList;
 import static java.util.Arrays.stream;
-import static org.apache.commons.lang3.StringUtils.isBlank;
-import static org.springframework.http.MediaType.*;
-import static org.springframework.test.util.AssertionErrors.assertEquals;
-import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
 
 /**
  * JUnit Rule to configure mock mockServer.
+ * <p>
+ * The rule is thread-safe: requests may be sent from several threads. A rule created by
+ * {@link #concurrent(Supplier)} also matches them concurrently and in any order, a rule created by
+ * {@link #async(Supplier)} binds the scenarios to an {@link AsyncRestTemplate}.
+ * <p>
+ * Hits, match attempts and timings of each scenario are collected in {@link #getMetrics()} and logged after the test.
+ * <p>
+ * Scenario files with a {@link ScenarioStep} match only in the required state of their stateful scenario,
+ * e.g. pages of a paginated resource, and move it to the next state. All stateful scenarios start again
+ * in every test.
+ * <p>
+ * Requests to the paths of {@link MockServerScenario#ignore()}, e.g. health checks or telemetry, are answered with
+ * an empty {@code 200 OK} response by an interceptor added to the template for the test, before they reach
+ * the mock server, so they are neither matched nor verified.
  */
+@Slf4j
 public class MockServerRule implements TestRule {
 
+    private static final Object NULL_VALUE = new Object();
+
     private final Supplier<RestTemplate> supplier;
+    private final Supplier<AsyncRestTemplate> asyncSupplier;
+    private final boolean concurrent;
 
-    private MockRestServiceServer mockServer;
+    private volatile MockRestServiceServer mockServer;
+    private volatile ConcurrentRequestExpectationManager expectationManager;
 
-    private Map<String, MockServerCall> parsedCalls = new HashMap<>();
-    private Map<String, Object> parameters = new HashMap<>();
+    private volatile Map<String, MockServerCallMatcher> matchers = new ConcurrentHashMap<>();
+    private final Map<String, Object> parameters = new ConcurrentHashMap<>();
+    private final MockServerMetrics metrics = new MockServerMetrics();
+    private final ScenarioStates scenarioStates = new ScenarioStates();
 
     public MockServerRule(Supplier<RestTemplate> supplier) {
+        this(supplier, null, false);
+    }
+
+    private MockServerRule(Supplier<RestTemplate> supplier, Supplier<AsyncRestTemplate> asyncSupplier, boolean concurrent) {
         this.supplier = supplier;
+        this.asyncSupplier = asyncSupplier;
+        this.concurrent = concurrent;
+    }
+
+    /**
+     * Creates a rule for multi-threaded clients: expected requests are matched concurrently and in any order,
+     * each request only against expectations of its own method, host and path.
+     */
+    public static MockServerRule concurrent(Supplier<RestTemplate> supplier) {
+        return new MockServerRule(supplier, null, true);
+    }
+
+    /**
+     * Creates a rule for non-blocking clients: expected requests are matched like in a {@link #concurrent} rule,
+     * in the calling thread, while delayed responses and faults complete the returned futures from a scheduler
+     * once their delay elapses, so the calling thread is never blocked.
+     */
+    public static MockServerRule async(Supplier<AsyncRestTemplate> supplier) {
+        return new MockServerRule(null, supplier, true);
     }
 
     @Override
@@ -57,26 +99,99 @@ public class MockServerRule implements TestRule {
             @Override
             public void evaluate() throws Throwable {
                 MockServerScenario serverScenario = description.getAnnotation(MockServerScenario.class);
+                metrics.reset();
+                scenarioStates.reset();
+                Runnable stopIgnoring = () -> { };
                 if (serverScenario != null) {
                     initMockServer();
-                    stream(serverScenario.value()).forEach(file -> mockRequest(file));
+                    stream(serverScenario.value())
+                            .flatMap(scenario -> ScenarioIndex.resolve(scenario).stream())
+                            .forEach(file -> mockRequest(file));
+                    stopIgnoring = ignoreRequests(IgnoredPaths.of(serverScenario.ignore()));
+                }
+                try {
+                    base.evaluate();
+                    verifyAndReset();
+                } finally {
+                    stopIgnoring.run();
+                    if (!metrics.isEmpty()) {
+                        log.info("Mock server metrics of {}:\n{}", description.getDisplayName(), metrics.report());
+                    }
                 }
-                base.evaluate();
-                verifyAndReset();
             }
         };
     }
 
+    /**
+     * Metrics of the scenarios of the current test.
+     */
+    public MockServerMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Sets scenario placeholder value, scenarios are compiled again on next request.
+     */
     public void setParameter(String name, Object value) {
-        parameters.put(name, value);
+        parameters.put(name, value == null ? NULL_VALUE : value);
+        matchers = new ConcurrentHashMap<>();
+        ConcurrentRequestExpectationManager manager = expectationManager;
+        if (manager != null) {
+            manager.invalidateIndex();
+        }
+    }
+
+    private MockServerCallMatcher getMatcher(String file) {
+        return matchers.computeIfAbsent(file, f -> MockServerCallMatcher.compile(parseFile(f, parameterValues())));
     }
 
-    private MockServerCall getMockServerCall(String file) {
-        return parsedCalls.computeIfAbsent(file, f -> parseFile(f, parameters));
+    private Map<String, Object> parameterValues() {
+        Map<String, Object> values = new HashMap<>(parameters.size());
+        parameters.forEach((name, value) -> values.put(name, value == NULL_VALUE ? null : value));
+        return values;
     }
 
     private void initMockServer() {
-        mockServer = MockRestServiceServer.createServer(supplier.get());
+        if (asyncSupplier != null) {
+            expectationManager = new ConcurrentRequestExpectationManager();
+            AsyncRestTemplate asyncRestTemplate = asyncSupplier.get();
+            mockServer = MockRestServiceServer.bindTo(asyncRestTemplate).build(expectationManager);
+            asyncRestTemplate.setAsyncRequestFactory(new ScheduledMockRequestFactory(expectationManager));
+        } else if (concurrent) {
+            expectationManager = new ConcurrentRequestExpectationManager();
+            mockServer = MockRestServiceServer.bindTo(supplier.get()).build(expectationManager);
+        } else {
+            mockServer = MockRestServiceServer.createServer(supplier.get());
+        }
+    }
+
+    /**
+     * Puts {@link IgnoredRequestInterceptor} before the interceptors of the template.
+     *
+     * @return action restoring the interceptors of the template
+     */
+    private Runnable ignoreRequests(IgnoredPaths ignoredPaths) {
+        if (ignoredPaths.isEmpty()) {
+            return () -> { };
+        }
+        IgnoredRequestInterceptor interceptor = new IgnoredRequestInterceptor(ignoredPaths);
+        if (asyncSupplier != null) {
+            AsyncRestTemplate asyncRestTemplate = asyncSupplier.get();
+            List<AsyncClientHttpRequestInterceptor> interceptors = asyncRestTemplate.getInterceptors();
+            asyncRestTemplate.setInterceptors(prepend(interceptor, interceptors));
+            return () -> asyncRestTemplate.setInterceptors(interceptors);
+        }
+        RestTemplate restTemplate = supplier.get();
+        List<ClientHttpRequestInterceptor> interceptors = restTemplate.getInterceptors();
+        restTemplate.setInterceptors(prepend(interceptor, interceptors));
+        return () -> restTemplate.setInterceptors(interceptors);
+    }
+
+    private static <T> List<T> prepend(T first, List<T> list) {
+        List<T> result = new ArrayList<>(list.size() + 1);
+        result.add(first);
+        result.addAll(list);
+        return result;
     }
 
     private void verifyAndReset() {
@@ -88,83 +203,132 @@ public class MockServerRule implements TestRule {
 
     @SneakyThrows
     private void mockRequest(String file) {
+        ScenarioRequestMatcher requestMatcher = new ScenarioRequestMatcher(file);
         mockServer
-                .expect(requestMatcher(file))
-                .andRespond(responseCreator(file));
+                .expect(requestMatcher)
+                .andRespond(responseCreator(file, requestMatcher));
     }
 
-    private RequestMatcher requestMatcher(String file) {
+    /**
+     * Creates responses of the scenario file. Spring expectation managers validate requests one at a time,
+     * so a rule which is not concurrent takes the scenario step here, otherwise
+     * {@link ConcurrentRequestExpectationManager} takes it once the expectation is claimed.
+     */
+    private ResponseCreator responseCreator(String file, ScenarioRequestMatcher requestMatcher) {
         return request -> {
-            MockServerCall expectedCall = getMockServerCall(file);
-            URI expectedUri = expectedCall.getUri();
-            assertEquals("Unexpected request host", expectedUri.getHost(), request.getURI().getHost());
-            assertEquals("Unexpected request path", expectedUri.getPath(), request.getURI().getPath());
-
-            if (!parseUriQuery(request.getURI().getQuery()).entrySet()
-                    .containsAll(parseUriQuery(expectedUri.getQuery()).entrySet())) {
-                throw new AssertionError(
-                        format("Unexpected request query parameters expected:<%s> but was:<%s>", expectedUri, request.getURI()));
+            if (!concurrent && !requestMatcher.commit(request)) {
+                throw new AssertionError("Scenario state of " + file + " has changed while the request was matched");
             }
-
-            method(expectedCall.getRequestMethod()).match(request);
-            HttpHeaders expectedHeaders = expectedCall.getRequestHeaders();
-            for (String headerName : expectedHeaders.keySet()) {
-                assertEquals("Unexpected request header", expectedHeaders.get(headerName), request.getHeaders().get(headerName));
+            MockServerCall expectedCall = getMatcher(file).getExpectedCall();
+            ResponseProfile profile = expectedCall.getResponseProfile();
+            long delayMillis = profile.sampleDelayMillis();
+            if (asyncSupplier != null && (delayMillis > 0 || profile.getFault() != null)) {
+                return profile.getFault() != null
+                        ? new DelayedResponse(delayMillis, null, fault(file, profile))
+                        : new DelayedResponse(delayMillis, respond(file, request, expectedCall, profile), null);
             }
-
-            validateBody(request, expectedCall);
+            delay(delayMillis);
+            if (profile.getFault() != null) {
+                throw fault(file, profile);
+            }
+            return respond(file, request, expectedCall, profile);
         };
     }
 
-    private ResponseCreator responseCreator(String file) {
-        return request -> {
-            MockServerCall expectedCall = getMockServerCall(file);
-            DefaultResponseCreator responseCreator = withStatus(expectedCall.getResponseStatus())
-                    .headers(expectedCall.getResponseHeaders());
-            if (expectedCall.getResponseBody() != null) {
-                responseCreator.body(expectedCall.getResponseBody());
-            }
-            parsedCalls.remove(file);
-            return responseCreator.createResponse(request);
-        };
+    private IOException fault(String file, ResponseProfile profile) {
+        metrics.scenario(file).recordHit(0);
+        return profile.faultException();
     }
 
-    private void validateBody(ClientHttpRequest request, MockServerCall expectedCall) throws IOException {
-        if (isBlank(expectedCall.getRequestBody())) {
-            return;
-        }
-        MediaType contentType = expectedCall.getRequestHeaders().getContentType();
-        if (APPLICATION_FORM_URLENCODED.equals(contentType)) {
-            validateFormDataBody(request, expectedCall.getRequestBody());
-        } else if (APPLICATION_JSON.equals(contentType) || APPLICATION_JSON_UTF8.equals(contentType)) {
-            validateJsonBody(request, expectedCall.getRequestBody());
-        } else {
-            MockRestRequestMatchers.content().string(expectedCall.getRequestBody()).match(request);
+    private ClientHttpResponse respond(String file,
+                                       ClientHttpRequest request,
+                                       MockServerCall expectedCall,
+                                       ResponseProfile profile) throws IOException {
+        long start = System.nanoTime();
+        try {
+            return createResponse(request, expectedCall, profile);
+        } finally {
+            metrics.scenario(file).recordHit(System.nanoTime() - start);
         }
     }
 
-    private void validateJsonBody(ClientHttpRequest request, String expectedContent) {
-        if (isBlank(expectedContent)) {
-            return;
+    private static ClientHttpResponse createResponse(ClientHttpRequest request,
+                                                     MockServerCall expectedCall,
+                                                     ResponseProfile profile) throws IOException {
+        MockServerCallBody body = expectedCall.getResponseBodyContent();
+        if (profile.isThrottled() && body != null) {
+            long size = body.length();
+            MockClientHttpResponse response = new MockClientHttpResponse(new ThrottledInputStream(body.openStream(),
+                    size, profile.chunks(size), profile.deliveryMillis(size)), expectedCall.getResponseStatus());
+            response.getHeaders().putAll(expectedCall.getResponseHeaders());
+            return response;
         }
-        MockClientHttpRequest mockRequest = (MockClientHttpRequest) request;
-        try {
-            JSONAssert.assertEquals(expectedContent, mockRequest.getBodyAsString(), JSONCompareMode.LENIENT);
-        } catch (AssertionError | JSONException e) {
-            throw new AssertionError(
-                    format("Unexpected request body expected:<%s> but was:<%s>", expectedContent, mockRequest.getBodyAsString()), e);
+        if (body != null && (body.isStreamed() || profile.getChunkSize() != null)) {
+            MockClientHttpResponse response = new MockClientHttpResponse(
+                    ChunkedInputStream.of(body.openStream(), profile.getChunkSize()), expectedCall.getResponseStatus());
+            response.getHeaders().putAll(expectedCall.getResponseHeaders());
+            return response;
+        }
+        DefaultResponseCreator responseCreator = withStatus(expectedCall.getResponseStatus())
+                .headers(expectedCall.getResponseHeaders());
+        if (body != null) {
+            responseCreator.body(body.bytes());
         }
+        return responseCreator.createResponse(request);
     }
 
-    private void validateFormDataBody(ClientHttpRequest request, String expectedContent) {
-        if (isBlank(expectedContent)) {
-            return;
+    @SneakyThrows
+    private static void delay(long millis) {
+        if (millis > 0) {
+            MILLISECONDS.sleep(millis);
         }
-        MockClientHttpRequest mockRequest = (MockClientHttpRequest) request;
-        if (!asList(mockRequest.getBodyAsString().split("&"))
-                .containsAll(asList(expectedContent.replaceAll("\\r|\\n", "").split("&")))) {
-            throw new AssertionError(
-                    format("Unexpected request body expected:<%s> but was:<%s>", expectedContent, mockRequest.getBodyAsString()));
+    }
+
+    /**
+     * Matches requests against the scenario file, exposes its endpoint for {@link ConcurrentRequestExpectationManager}.
+     * Matching only checks the state of a stateful scenario, the step is taken by {@link #commit}.
+     */
+    @RequiredArgsConstructor
+    private class ScenarioRequestMatcher implements ConcurrentRequestExpectationManager.IndexedRequestMatcher,
+            ConcurrentRequestExpectationManager.CommittingRequestMatcher {
+
+        private final String file;
+
+        @Override
+        public void match(ClientHttpRequest request) {
+            MockServerCallMatcher matcher = getMatcher(file);
+            long start = System.nanoTime();
+            String mismatch = matcher.mismatch(request.getMethod(), request.getURI(), request.getHeaders(),
+                    () -> ((MockClientHttpRequest) request).getBodyAsBytes());
+            ScenarioStep step = matcher.getExpectedCall().getScenarioStep();
+            if (mismatch == null && step != null) {
+                mismatch = scenarioStates.mismatch(step);
+            }
+            metrics.scenario(file).recordMatch(System.nanoTime() - start);
+            if (mismatch != null) {
+                throw new AssertionError(mismatch);
+            }
+        }
+
+        @Override
+        public boolean commit(ClientHttpRequest request) {
+            ScenarioStep step = getMatcher(file).getExpectedCall().getScenarioStep();
+            return step == null || scenarioStates.transition(step);
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return getMatcher(file).getExpectedCall().getRequestMethod();
+        }
+
+        @Override
+        public String getHost() {
+            return getMatcher(file).getExpectedCall().getUri().getHost();
+        }
+
+        @Override
+        public String getPath() {
+            return getMatcher(file).getExpectedCall().getUri().getPath();
         }
     }
 }
@@ -11,7 +11,15 @@ import java.lang.annotation.*;
 @Inherited
 public @interface MockServerScenario {
 
+    /**
+     * Scenario files, directories (ending with {@code /}) or Ant-style globs, see {@link ScenarioIndex}.
+     */
     String[] value() default "";
+
+    /**
+     * Request paths or Ant-style path patterns, e.g. {@code /health} or {@code /metrics/**}, answered with an empty
+     * {@code 200 OK} response before scenarios are matched. Such requests are not verified.
+     */
     String[] ignore() default "";
 
 }
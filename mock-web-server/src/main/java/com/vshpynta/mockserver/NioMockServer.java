@@ -0,0 +1,650 @@
+package com.vshpynta.mockserver;
+
+import com.github.tomakehurst.wiremock.http.Fault;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.IOUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static java.util.Comparator.comparingLong;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Minimal HTTP/1.1 mock server for high-load client tests, an alternative to a WireMock server when scenarios
+ * only need to be served fast: one selector thread, no admin API and no request journal.
+ * <p>
+ * Requests are dispatched by method and path to the compiled {@link MockServerCallMatcher}s of the stubbed
+ * scenarios, which match like WireMock stubs: the request host is ignored and header values are matched by
+ * containment. Responses are rendered once, when a scenario is stubbed, into a direct buffer shared by all
+ * connections; bodies of scenarios whose {@code @body-file} is a file are sent from the file with
+ * {@link FileChannel#transferTo}, other streamed bodies, e.g. generated ones or files with {@code @chunk-size},
+ * are read from their source while they are written, in chunks. Random data of
+ * {@link Fault#RANDOM_DATA_THEN_CLOSE} is generated for every response. Responses to {@code HEAD} requests
+ * carry the headers only. Connections are kept
+ * alive and pipelined requests are answered in order.
+ * <p>
+ * Delays and faults of {@link ResponseProfile} are supported, bandwidth throttling is not. Stateful scenarios
+ * take their steps as described in {@link ScenarioStates}, {@link #reset()} starts them again.
+ */
+@Slf4j
+public final class NioMockServer implements AutoCloseable {
+
+    private static final int READ_BUFFER_SIZE = 16 * 1024;
+    private static final int MAX_REQUEST_SIZE = 16 * 1024 * 1024;
+    private static final int RANDOM_DATA_SIZE = 1024;
+    private static final int STREAMED_CHUNK_SIZE = 16 * 1024;
+    private static final String CRLF = "\r\n";
+    private static final int CHUNK_HEAD_SIZE = 10;
+    private static final byte[] LAST_CHUNK = ("0" + CRLF + CRLF).getBytes(ISO_8859_1);
+
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final Thread eventLoop;
+    private final PriorityQueue<Connection> delayedConnections = new PriorityQueue<>(comparingLong(c -> c.resumeAtNanos));
+
+    private final ScenarioStates scenarioStates = new ScenarioStates();
+
+    private volatile Map<String, List<Stub>> stubs = Collections.emptyMap();
+    private volatile boolean running = true;
+
+    private NioMockServer(int port) throws IOException {
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        eventLoop = new Thread(this::runEventLoop, "nio-mock-server-" + port());
+        eventLoop.setDaemon(true);
+    }
+
+    /**
+     * Starts a server on a free port.
+     */
+    public static NioMockServer start() {
+        return start(0);
+    }
+
+    @SneakyThrows
+    public static NioMockServer start(int port) {
+        long start = System.nanoTime();
+        NioMockServer server = new NioMockServer(port);
+        server.eventLoop.start();
+        log.debug("NIO mock server started on port {} in {} ms", server.port(),
+                NANOSECONDS.toMillis(System.nanoTime() - start));
+        return server;
+    }
+
+    public int port() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    public String baseUrl() {
+        return format("http://localhost:%s", port());
+    }
+
+    public void stubRequests(RequestStubConfig... requestStubConfigs) {
+        stubRequests(asList(requestStubConfigs));
+    }
+
+    /**
+     * Parses the scenario files and serves them in addition to the stubbed ones.
+     */
+    public synchronized void stubRequests(List<RequestStubConfig> requestStubConfigs) {
+        Map<String, List<Stub>> updated = new HashMap<>(stubs);
+        for (RequestStubConfig requestStubConfig : requestStubConfigs) {
+            Stub stub = new Stub(MockServerCallParser.parseFile(requestStubConfig.getConfigFile(),
+                    requestStubConfig.getPlaceholders()));
+            updated.compute(stub.key, (key, keyStubs) -> {
+                List<Stub> list = keyStubs == null ? new ArrayList<>() : new ArrayList<>(keyStubs);
+                list.add(stub);
+                return list;
+            });
+        }
+        stubs = updated;
+    }
+
+    /**
+     * Removes all stubs.
+     */
+    public synchronized void reset() {
+        stubs = Collections.emptyMap();
+        scenarioStates.reset();
+    }
+
+    @Override
+    @SneakyThrows
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        selector.wakeup();
+        eventLoop.join();
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof Connection) {
+                ((Connection) key.attachment()).close();
+            } else {
+                key.channel().close();
+            }
+        }
+        selector.close();
+    }
+
+    private void runEventLoop() {
+        while (running) {
+            try {
+                Connection due = delayedConnections.peek();
+                long waitNanos = due == null ? 0 : due.resumeAtNanos - System.nanoTime();
+                if (due != null && waitNanos <= 0) {
+                    selector.selectNow();
+                } else {
+                    selector.select(due == null ? 0 : Math.max(1, NANOSECONDS.toMillis(waitNanos)));
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (key.isValid() && key.isAcceptable()) {
+                        accept();
+                    } else if (key.isValid()) {
+                        handle((Connection) key.attachment(), key.isReadable());
+                    }
+                }
+                resumeDelayed();
+            } catch (IOException | RuntimeException e) {
+                log.error("NIO mock server event loop failed", e);
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            Connection connection = new Connection(channel);
+            connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+        }
+    }
+
+    private void resumeDelayed() {
+        long now = System.nanoTime();
+        while (!delayedConnections.isEmpty() && delayedConnections.peek().resumeAtNanos <= now) {
+            Connection connection = delayedConnections.poll();
+            connection.delayed = false;
+            try {
+                respond(connection, connection.delayedStub);
+                serve(connection);
+            } catch (IOException e) {
+                connection.close();
+            } catch (RuntimeException e) {
+                log.warn("NIO mock server failed to answer a request, closing its connection", e);
+                connection.close();
+            }
+        }
+    }
+
+    private void handle(Connection connection, boolean readable) {
+        try {
+            if (readable && connection.read() < 0) {
+                connection.close();
+                return;
+            }
+            serve(connection);
+        } catch (IOException e) {
+            connection.close();
+        } catch (RuntimeException e) {
+            log.warn("NIO mock server failed to answer a request, closing its connection", e);
+            connection.close();
+        }
+    }
+
+    /**
+     * Writes the pending response, then answers buffered requests until one is incomplete, delayed
+     * or cannot be written at once.
+     */
+    private void serve(Connection connection) throws IOException {
+        while (connection.isOpen() && !connection.delayed && connection.flush() && nextRequest(connection)) {
+            // answers pipelined requests
+        }
+        if (connection.isOpen()) {
+            connection.key.interestOps(connection.delayed ? 0
+                    : connection.isWriting() ? SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+        }
+    }
+
+    /**
+     * Parses a buffered request and starts its response.
+     *
+     * @return whether a request was complete
+     */
+    private boolean nextRequest(Connection connection) throws IOException {
+        ByteBuffer in = connection.in;
+        int headEnd = indexOfHeadEnd(in.array(), in.position());
+        if (headEnd < 0) {
+            if (in.position() >= MAX_REQUEST_SIZE) {
+                connection.headRequest = false;
+                respondError(connection, HttpStatus.REQUEST_HEADER_FIELDS_TOO_LARGE, "Request head is too large");
+            }
+            return false;
+        }
+        String[] lines = new String(in.array(), 0, headEnd, ISO_8859_1).split(CRLF);
+        String[] requestLine = lines[0].split(" ");
+        connection.headRequest = HttpMethod.HEAD.name().equals(requestLine[0]);
+        if (requestLine.length != 3) {
+            respondError(connection, HttpStatus.BAD_REQUEST, "Malformed request line: " + lines[0]);
+            return false;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        for (int i = 1; i < lines.length; i++) {
+            int colon = lines[i].indexOf(':');
+            if (colon > 0) {
+                headers.add(lines[i].substring(0, colon).trim(), lines[i].substring(colon + 1).trim());
+            }
+        }
+        if (headers.containsKey(HttpHeaders.TRANSFER_ENCODING)) {
+            respondError(connection, HttpStatus.LENGTH_REQUIRED, "Chunked request bodies are not supported");
+            return false;
+        }
+        long contentLength = contentLength(headers);
+        if (contentLength < 0) {
+            respondError(connection, HttpStatus.BAD_REQUEST,
+                    "Malformed Content-Length: " + headers.getFirst(HttpHeaders.CONTENT_LENGTH));
+            return false;
+        }
+        int requestSize = headEnd + 4 + (int) Math.min(contentLength, MAX_REQUEST_SIZE);
+        if (contentLength > MAX_REQUEST_SIZE) {
+            respondError(connection, HttpStatus.PAYLOAD_TOO_LARGE, "Request body is too large");
+            return false;
+        }
+        if (in.position() < requestSize) {
+            connection.ensureCapacity(requestSize);
+            return false;
+        }
+        byte[] body = new byte[(int) contentLength];
+        System.arraycopy(in.array(), headEnd + 4, body, 0, body.length);
+        in.flip();
+        in.position(requestSize);
+        in.compact();
+
+        connection.keepAlive = "HTTP/1.1".equals(requestLine[2])
+                ? headers.getConnection().stream().noneMatch("close"::equalsIgnoreCase)
+                : headers.getConnection().stream().anyMatch("keep-alive"::equalsIgnoreCase);
+        dispatch(connection, requestLine[0], requestLine[1], headers, body);
+        return true;
+    }
+
+    private void dispatch(Connection connection, String method, String target, HttpHeaders headers, byte[] body)
+            throws IOException {
+        HttpMethod httpMethod = HttpMethod.resolve(method);
+        URI uri;
+        try {
+            uri = URI.create("http://localhost" + target);
+        } catch (IllegalArgumentException e) {
+            respondError(connection, HttpStatus.BAD_REQUEST, "Malformed request target: " + target);
+            return;
+        }
+        String path = uri.getPath() == null ? "" : uri.getPath();
+        String firstMismatch = null;
+        for (Stub stub : stubs.getOrDefault(method + " " + path, Collections.emptyList())) {
+            String mismatch = stub.matcher.serverMismatch(httpMethod, uri, headers, () -> body);
+            if (mismatch == null && stub.step != null) {
+                mismatch = scenarioStates.mismatch(stub.step);
+            }
+            if (mismatch == null && (stub.step == null || scenarioStates.transition(stub.step))) {
+                long delayMillis = stub.profile.sampleDelayMillis();
+                if (delayMillis > 0) {
+                    connection.delayed = true;
+                    connection.delayedStub = stub;
+                    connection.resumeAtNanos = System.nanoTime() + MILLISECONDS.toNanos(delayMillis);
+                    delayedConnections.add(connection);
+                } else {
+                    respond(connection, stub);
+                }
+                return;
+            }
+            if (firstMismatch == null) {
+                firstMismatch = mismatch;
+            }
+        }
+        respondError(connection, HttpStatus.NOT_FOUND, format("No scenario matches %s %s%s", method, target,
+                firstMismatch == null ? "" : CRLF + firstMismatch));
+        connection.closeAfterWrite = !connection.keepAlive;
+    }
+
+    private void respond(Connection connection, Stub stub) throws IOException {
+        Fault fault = stub.profile.getFault();
+        if (fault == Fault.CONNECTION_RESET_BY_PEER) {
+            connection.channel.socket().setSoLinger(true, 0);
+            connection.close();
+            return;
+        }
+        connection.closeAfterWrite = fault != null || !connection.keepAlive;
+        if (fault == Fault.RANDOM_DATA_THEN_CLOSE) {
+            byte[] randomData = new byte[RANDOM_DATA_SIZE];
+            ThreadLocalRandom.current().nextBytes(randomData);
+            connection.out = ByteBuffer.wrap(randomData);
+            return;
+        }
+        connection.out = stub.response.duplicate();
+        if (connection.headRequest) {
+            connection.out.limit(stub.headLength);
+            return;
+        }
+        if (stub.bodyFile != null) {
+            connection.file = FileChannel.open(stub.bodyFile);
+            connection.filePosition = 0;
+        } else if (stub.bodySource != null) {
+            connection.body = stub.bodySource.open();
+            connection.bodyChunkSize = stub.profile.getChunkSize() != null ? stub.profile.getChunkSize()
+                    : STREAMED_CHUNK_SIZE;
+        }
+    }
+
+
+    private static void respondError(Connection connection, HttpStatus status, String message) {
+        byte[] body = message.getBytes(UTF_8);
+        String head = statusLine(status) + "Content-Type: text/plain;charset=UTF-8" + CRLF
+                + "Content-Length: " + body.length + CRLF + CRLF;
+        ByteBuffer response = ByteBuffer.allocate(head.length() + body.length);
+        response.put(head.getBytes(ISO_8859_1));
+        if (!connection.headRequest) {
+            response.put(body);
+        }
+        response.flip();
+        connection.out = response;
+        connection.closeAfterWrite = true;
+    }
+
+    /**
+     * @return content length of the request, zero if it is not given or {@code -1} if it is malformed
+     */
+    private static long contentLength(HttpHeaders headers) {
+        String value = headers.getFirst(HttpHeaders.CONTENT_LENGTH);
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Math.max(Long.parseLong(value.trim()), -1);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static int indexOfHeadEnd(byte[] data, int length) {
+        for (int i = 0; i + 3 < length; i++) {
+            if (data[i] == '\r' && data[i + 1] == '\n' && data[i + 2] == '\r' && data[i + 3] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String statusLine(HttpStatus status) {
+        return "HTTP/1.1 " + status.value() + " " + status.getReasonPhrase() + CRLF;
+    }
+
+    /**
+     * Scenario compiled for serving: its matcher and its response rendered once.
+     */
+    private static final class Stub {
+
+        private final String key;
+        private final MockServerCallMatcher matcher;
+        private final ResponseProfile profile;
+        private final ScenarioStep step;
+        private final ByteBuffer response;
+        private final int headLength;
+        private final Path bodyFile;
+        private final MockServerCallBody.Source bodySource;
+
+        Stub(MockServerCall call) {
+            if (call.getResponseProfile().isThrottled()) {
+                throw new IllegalArgumentException("Response throttling is not supported by NioMockServer");
+            }
+            this.key = call.getRequestMethod().name() + " " + call.getUri().getPath();
+            this.matcher = MockServerCallMatcher.compile(call);
+            this.profile = call.getResponseProfile();
+            this.step = call.getScenarioStep();
+            MockServerCallBody body = profile.getFault() == null ? call.getResponseBodyContent() : null;
+            this.bodyFile = profile.getChunkSize() == null ? bodyFile(body) : null;
+            this.bodySource = bodyFile == null && body != null ? body.getSource() : null;
+            byte[] head = renderHead(call, bodyFile, bodySource != null);
+            this.headLength = head.length;
+            this.response = render(call, head, bodyFile != null || bodySource != null);
+        }
+
+        private static Path bodyFile(MockServerCallBody body) {
+            if (body == null || !(body.getSource() instanceof ResourceBody)) {
+                return null;
+            }
+            URL resource = ((ResourceBody) body.getSource()).getResource();
+            return "file".equals(resource.getProtocol()) ? Paths.get(URI.create(resource.toString())) : null;
+        }
+
+        /**
+         * Renders status line and headers of the response, without the head for faults sending garbage or nothing.
+         */
+        private static byte[] renderHead(MockServerCall call, Path bodyFile, boolean streamed) {
+            ResponseProfile profile = call.getResponseProfile();
+            Fault fault = profile.getFault();
+            if (fault == Fault.RANDOM_DATA_THEN_CLOSE || fault == Fault.EMPTY_RESPONSE) {
+                return new byte[0];
+            }
+            StringBuilder head = new StringBuilder(statusLine(call.getResponseStatus()));
+            call.getResponseHeaders().forEach((name, values) -> {
+                if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name) && !HttpHeaders.TRANSFER_ENCODING.equalsIgnoreCase(name)) {
+                    values.forEach(value -> head.append(name).append(": ").append(value).append(CRLF));
+                }
+            });
+            if (fault == Fault.MALFORMED_RESPONSE_CHUNK || streamed || profile.getChunkSize() != null) {
+                head.append("Transfer-Encoding: chunked").append(CRLF).append(CRLF);
+            } else {
+                long contentLength = bodyFile != null ? bodyFile.toFile().length()
+                        : fault != null || call.getResponseBodyContent() == null ? 0 : call.getResponseBodyContent().size();
+                head.append("Content-Length: ").append(contentLength).append(CRLF).append(CRLF);
+            }
+            return head.toString().getBytes(ISO_8859_1);
+        }
+
+        /**
+         * Renders the head and, unless it is sent from a file or its source, the body into a read-only direct buffer.
+         */
+        private static ByteBuffer render(MockServerCall call, byte[] head, boolean bodySent) {
+            ResponseProfile profile = call.getResponseProfile();
+            Fault fault = profile.getFault();
+            byte[] body;
+            if (fault == Fault.MALFORMED_RESPONSE_CHUNK) {
+                body = ("lah" + CRLF).getBytes(ISO_8859_1);
+            } else if (fault != null || bodySent || call.getResponseBodyContent() == null) {
+                body = new byte[0];
+            } else if (profile.getChunkSize() != null) {
+                body = chunked(call.getResponseBodyBytes(), profile.getChunkSize());
+            } else {
+                body = call.getResponseBodyBytes();
+            }
+            ByteBuffer response = ByteBuffer.allocateDirect(head.length + body.length);
+            response.put(head).put(body).flip();
+            return response.asReadOnlyBuffer();
+        }
+
+        private static byte[] chunked(byte[] body, int chunkSize) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(body.length + body.length / chunkSize * 8 + 16);
+            for (int offset = 0; offset < body.length; offset += chunkSize) {
+                int length = Math.min(chunkSize, body.length - offset);
+                byte[] size = (Integer.toHexString(length) + CRLF).getBytes(ISO_8859_1);
+                out.write(size, 0, size.length);
+                out.write(body, offset, length);
+                out.write('\r');
+                out.write('\n');
+            }
+            byte[] last = ("0" + CRLF + CRLF).getBytes(ISO_8859_1);
+            out.write(last, 0, last.length);
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * Client connection, is accessed by the event loop thread only.
+     */
+    private static final class Connection {
+
+        private final SocketChannel channel;
+        private SelectionKey key;
+        private ByteBuffer in = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        private ByteBuffer out;
+        private FileChannel file;
+        private long filePosition;
+        private InputStream body;
+        private int bodyChunkSize;
+        private ByteBuffer bodyChunk;
+        private boolean bodyEnded;
+        private boolean headRequest;
+        private boolean keepAlive;
+        private boolean closeAfterWrite;
+        private boolean delayed;
+        private Stub delayedStub;
+        private long resumeAtNanos;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        int read() throws IOException {
+            if (!in.hasRemaining()) {
+                grow();
+            }
+            return channel.read(in);
+        }
+
+        boolean isOpen() {
+            return channel.isOpen();
+        }
+
+        boolean isWriting() {
+            return out != null || file != null || body != null;
+        }
+
+        /**
+         * Writes as much of the pending response as the socket accepts.
+         *
+         * @return whether the connection is ready for the next request
+         */
+        boolean flush() throws IOException {
+            if (out != null) {
+                channel.write(out);
+                if (out.hasRemaining()) {
+                    return false;
+                }
+                out = null;
+            }
+            if (file != null) {
+                filePosition += file.transferTo(filePosition, file.size() - filePosition, channel);
+                if (filePosition < file.size()) {
+                    return false;
+                }
+                file.close();
+                file = null;
+            }
+            while (body != null) {
+                if (bodyChunk == null || !bodyChunk.hasRemaining()) {
+                    nextBodyChunk();
+                }
+                channel.write(bodyChunk);
+                if (bodyChunk.hasRemaining()) {
+                    return false;
+                }
+                if (bodyEnded) {
+                    body.close();
+                    body = null;
+                }
+            }
+            if (closeAfterWrite) {
+                close();
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * Reads the next chunk of the streamed body and frames it, the last chunk is empty.
+         */
+        private void nextBodyChunk() throws IOException {
+            if (bodyChunk == null || bodyChunk.capacity() < CHUNK_HEAD_SIZE + bodyChunkSize + 2) {
+                bodyChunk = ByteBuffer.allocate(CHUNK_HEAD_SIZE + bodyChunkSize + 2);
+            }
+            bodyChunk.clear();
+            int length = IOUtils.read(body, bodyChunk.array(), CHUNK_HEAD_SIZE, bodyChunkSize);
+            bodyEnded = length == 0;
+            if (bodyEnded) {
+                bodyChunk.put(LAST_CHUNK).flip();
+                return;
+            }
+            byte[] size = (Integer.toHexString(length) + CRLF).getBytes(ISO_8859_1);
+            int start = CHUNK_HEAD_SIZE - size.length;
+            System.arraycopy(size, 0, bodyChunk.array(), start, size.length);
+            bodyChunk.position(CHUNK_HEAD_SIZE + length);
+            bodyChunk.put((byte) '\r').put((byte) '\n');
+            bodyChunk.limit(bodyChunk.position()).position(start);
+        }
+
+        void grow() {
+            ensureCapacity(in.capacity() * 2);
+        }
+
+        void ensureCapacity(int capacity) {
+            if (capacity > in.capacity()) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.min(Math.max(capacity, in.capacity() * 2),
+                        MAX_REQUEST_SIZE + READ_BUFFER_SIZE));
+                in.flip();
+                grown.put(in);
+                in = grown;
+            }
+        }
+
+        void close() {
+            try {
+                if (file != null) {
+                    file.close();
+                }
+                if (body != null) {
+                    body.close();
+                }
+                channel.close();
+            } catch (IOException e) {
+                log.debug("Failed to close connection", e);
+            }
+        }
+    }
+}
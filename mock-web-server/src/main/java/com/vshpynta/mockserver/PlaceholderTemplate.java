@@ -0,0 +1,216 @@
+package com.vshpynta.mockserver;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static com.vshpynta.mockserver.ScenarioBinaryFormat.readString;
+import static com.vshpynta.mockserver.ScenarioBinaryFormat.writeString;
+
+/**
+ * Single-pass substitution of {@code ${name}} placeholders.
+ * <p>
+ * {@code ${name:default}} falls back to {@code default} when the context has no value for {@code name},
+ * {@code $${name}} is written as a literal {@code ${name}}. Placeholders missing in the context and having
+ * no default value are kept as is.
+ */
+public final class PlaceholderTemplate {
+
+    private static final String PLACEHOLDER_START = "${";
+    private static final char PLACEHOLDER_END = '}';
+    private static final char ESCAPE = '$';
+    private static final char DEFAULT_SEPARATOR = ':';
+
+    private final String text;
+    private final String[] literals;
+    private final String[] names;
+    private final String[] defaults;
+
+    private PlaceholderTemplate(String text, String[] literals, String[] names, String[] defaults) {
+        this.text = text;
+        this.literals = literals;
+        this.names = names;
+        this.defaults = defaults;
+    }
+
+    /**
+     * Resolves placeholder positions of the text once, so it can be bound to any number of contexts.
+     */
+    public static PlaceholderTemplate compile(String text) {
+        List<String> literals = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        List<String> defaults = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        scan(text, new Visitor() {
+            @Override
+            public void literal(String text, int from, int to) {
+                literal.append(text, from, to);
+            }
+
+            @Override
+            public void placeholder(String text, int from, int to, String name, String defaultValue) {
+                literals.add(literal.toString());
+                literal.setLength(0);
+                names.add(name);
+                defaults.add(defaultValue);
+            }
+        });
+        if (names.isEmpty()) {
+            return new PlaceholderTemplate(literal.toString(), null, null, null);
+        }
+        literals.add(literal.toString());
+        return new PlaceholderTemplate(text,
+                literals.toArray(new String[0]),
+                names.toArray(new String[0]),
+                defaults.toArray(new String[0]));
+    }
+
+    /**
+     * Substitutes placeholders of the text without compiling it, appending the result to the given buffer.
+     */
+    public static StringBuilder substitute(String text, Map<String, ?> context, StringBuilder out) {
+        scan(text, new Visitor() {
+            @Override
+            public void literal(String text, int from, int to) {
+                out.append(text, from, to);
+            }
+
+            @Override
+            public void placeholder(String text, int from, int to, String name, String defaultValue) {
+                if (!appendValue(out, context, name, defaultValue)) {
+                    out.append(text, from, to);
+                }
+            }
+        });
+        return out;
+    }
+
+    public static String substitute(String text, Map<String, ?> context) {
+        return substitute(text, context, new StringBuilder(text.length())).toString();
+    }
+
+    public boolean hasPlaceholders() {
+        return names != null;
+    }
+
+    public String bind(Map<String, ?> context) {
+        if (names == null) {
+            return text;
+        }
+        return bind(context, new StringBuilder(text.length())).toString();
+    }
+
+    /**
+     * Appends the text bound to the context to the given buffer.
+     */
+    public StringBuilder bind(Map<String, ?> context, StringBuilder out) {
+        if (names == null) {
+            return out.append(text);
+        }
+        for (int i = 0; i < names.length; i++) {
+            out.append(literals[i]);
+            if (!appendValue(out, context, names[i], defaults[i])) {
+                out.append(PLACEHOLDER_START).append(names[i]).append(PLACEHOLDER_END);
+            }
+        }
+        return out.append(literals[names.length]);
+    }
+
+    /**
+     * Writes the compiled template in {@link ScenarioBinaryFormat}.
+     */
+    void writeTo(DataOutput out) throws IOException {
+        int placeholders = names == null ? 0 : names.length;
+        out.writeInt(placeholders);
+        writeString(out, text);
+        for (int i = 0; i < placeholders; i++) {
+            writeString(out, literals[i]);
+            writeString(out, names[i]);
+            writeString(out, defaults[i]);
+        }
+        if (placeholders > 0) {
+            writeString(out, literals[placeholders]);
+        }
+    }
+
+    static PlaceholderTemplate readFrom(DataInput in) throws IOException {
+        int placeholders = in.readInt();
+        String text = readString(in);
+        if (placeholders == 0) {
+            return new PlaceholderTemplate(text, null, null, null);
+        }
+        String[] literals = new String[placeholders + 1];
+        String[] names = new String[placeholders];
+        String[] defaults = new String[placeholders];
+        for (int i = 0; i < placeholders; i++) {
+            literals[i] = readString(in);
+            names[i] = readString(in);
+            defaults[i] = readString(in);
+        }
+        literals[placeholders] = readString(in);
+        return new PlaceholderTemplate(text, literals, names, defaults);
+    }
+
+    private static boolean appendValue(StringBuilder out, Map<String, ?> context, String name, String defaultValue) {
+        if (context.containsKey(name)) {
+            Object value = context.get(name);
+            out.append(value == null && defaultValue != null ? defaultValue : Objects.toString(value, ""));
+            return true;
+        }
+        if (defaultValue != null) {
+            out.append(defaultValue);
+            return true;
+        }
+        return false;
+    }
+
+    private static void scan(String text, Visitor visitor) {
+        int position = 0;
+        int start = text.indexOf(PLACEHOLDER_START);
+        while (start >= 0) {
+            if (start > position && text.charAt(start - 1) == ESCAPE) {
+                visitor.literal(text, position, start - 1);
+                position = start;
+                start = text.indexOf(PLACEHOLDER_START, start + PLACEHOLDER_START.length());
+                continue;
+            }
+            int end = text.indexOf(PLACEHOLDER_END, start + PLACEHOLDER_START.length());
+            if (end < 0) {
+                break;
+            }
+            visitor.literal(text, position, start);
+            int separator = indexOf(text, DEFAULT_SEPARATOR, start + PLACEHOLDER_START.length(), end);
+            if (separator >= 0) {
+                visitor.placeholder(text, start, end + 1,
+                        text.substring(start + PLACEHOLDER_START.length(), separator),
+                        text.substring(separator + 1, end));
+            } else {
+                visitor.placeholder(text, start, end + 1,
+                        text.substring(start + PLACEHOLDER_START.length(), end), null);
+            }
+            position = end + 1;
+            start = text.indexOf(PLACEHOLDER_START, position);
+        }
+        visitor.literal(text, position, text.length());
+    }
+
+    private static int indexOf(String text, char ch, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (text.charAt(i) == ch) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private interface Visitor {
+
+        void literal(String text, int from, int to);
+
+        void placeholder(String text, int from, int to, String name, String defaultValue);
+    }
+}
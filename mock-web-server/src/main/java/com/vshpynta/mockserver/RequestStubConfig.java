@@ -8,18 +8,27 @@ import java.util.Map;
 
 import static lombok.AccessLevel.PRIVATE;
 
+/**
+ * Scenario file with values for its placeholders, which are substituted by {@link PlaceholderTemplate}.
+ */
 @AllArgsConstructor(access = PRIVATE)
 @Getter
 public class RequestStubConfig {
 
     private String configFile;
     private Map<String, Object> placeholders;
+    private ResponseBodySource responseBodySource;
 
     public static RequestStubConfig of(String configFile) {
-        return new RequestStubConfig(configFile, ImmutableMap.of());
+        return new RequestStubConfig(configFile, ImmutableMap.of(), ResponseBodySource.INLINE);
     }
 
     public static RequestStubConfig of(String configFile, Map<String, Object> placeholdersValues) {
-        return new RequestStubConfig(configFile, placeholdersValues);
+        return new RequestStubConfig(configFile, placeholdersValues, ResponseBodySource.INLINE);
+    }
+
+    public static RequestStubConfig of(String configFile, Map<String, Object> placeholdersValues,
+                                       ResponseBodySource responseBodySource) {
+        return new RequestStubConfig(configFile, placeholdersValues, responseBodySource);
     }
 }
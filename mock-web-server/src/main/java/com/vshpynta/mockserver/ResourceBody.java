@@ -0,0 +1,40 @@
+package com.vshpynta.mockserver;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+
+/**
+ * Body streamed from a classpath resource or a file each time it is read.
+ */
+public final class ResourceBody implements MockServerCallBody.Source {
+
+    private final URL resource;
+
+    public ResourceBody(URL resource) {
+        this.resource = resource;
+    }
+
+    public URL getResource() {
+        return resource;
+    }
+
+    @Override
+    public InputStream open() throws IOException {
+        return resource.openStream();
+    }
+
+    @Override
+    public long size() throws IOException {
+        if ("file".equals(resource.getProtocol())) {
+            try {
+                return new File(resource.toURI()).length();
+            } catch (URISyntaxException e) {
+                throw new IOException("Invalid body file URL: " + resource, e);
+            }
+        }
+        return MockServerCallBody.Source.super.size();
+    }
+}
@@ -0,0 +1,81 @@
+package com.vshpynta.mockserver;
+
+import lombok.SneakyThrows;
+import lombok.experimental.UtilityClass;
+
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Keeps response bodies in files named by their content digest, so equal bodies share one file and one mapped region.
+ */
+@UtilityClass
+class ResponseBodyFiles {
+
+    private static final String DIGEST_ALGORITHM = "SHA-1";
+
+    private static final Map<Path, MappedByteBuffer> mappedRegions = new ConcurrentHashMap<>();
+
+    private static volatile Path directory;
+
+    /**
+     * Writes the body to its file, unless the same content is stored already.
+     */
+    @SneakyThrows
+    static Path store(MockServerCallBody body) {
+        Path bodyDirectory = directory();
+        Path tempFile = Files.createTempFile(bodyDirectory, "body", ".tmp");
+        MessageDigest digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+        try (OutputStream out = new DigestOutputStream(Files.newOutputStream(tempFile), digest)) {
+            body.writeTo(out);
+        }
+        Path bodyFile = bodyDirectory.resolve(new BigInteger(1, digest.digest()).toString(16));
+        if (Files.exists(bodyFile)) {
+            Files.delete(tempFile);
+        } else {
+            Files.move(tempFile, bodyFile, ATOMIC_MOVE);
+            bodyFile.toFile().deleteOnExit();
+        }
+        return bodyFile;
+    }
+
+    /**
+     * Returns a read-only view of the file mapped into memory, the mapping is created once per file.
+     */
+    static ByteBuffer mapped(Path bodyFile) {
+        return mappedRegions.computeIfAbsent(bodyFile, ResponseBodyFiles::map).asReadOnlyBuffer();
+    }
+
+    @SneakyThrows
+    private static MappedByteBuffer map(Path bodyFile) {
+        try (FileChannel channel = FileChannel.open(bodyFile, READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    @SneakyThrows
+    private static Path directory() {
+        if (directory == null) {
+            synchronized (ResponseBodyFiles.class) {
+                if (directory == null) {
+                    Path created = Files.createTempDirectory("mock-server-bodies");
+                    created.toFile().deleteOnExit();
+                    directory = created;
+                }
+            }
+        }
+        return directory;
+    }
+}
@@ -0,0 +1,22 @@
+package com.vshpynta.mockserver;
+
+/**
+ * Defines how WireMock stubs keep response bodies.
+ */
+public enum ResponseBodySource {
+
+    /**
+     * Body is kept in the stub mapping on the heap.
+     */
+    INLINE,
+
+    /**
+     * Body is written to a file once and streamed from disk on every request.
+     */
+    FILE,
+
+    /**
+     * Body is written to a file once and served from a memory-mapped region shared by all stubs with the same body.
+     */
+    MAPPED
+}
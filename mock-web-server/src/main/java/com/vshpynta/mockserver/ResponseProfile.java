@@ -0,0 +1,87 @@
+package com.vshpynta.mockserver;
+
+import com.github.tomakehurst.wiremock.http.DelayDistribution;
+import com.github.tomakehurst.wiremock.http.Fault;
+import lombok.Data;
+
+import java.io.IOException;
+import java.net.SocketException;
+
+/**
+ * How a response is delivered: delays, throttling, chunking and faults, set by scenario file directives,
+ * see {@link ScenarioDirectives}.
+ */
+@Data
+public class ResponseProfile {
+
+    private static final int BANDWIDTH_CHUNKS_PER_SECOND = 10;
+
+    private Integer fixedDelayMillis;
+    private DelayDistribution delayDistribution;
+    private Integer dribbleChunks;
+    private Integer dribbleDurationMillis;
+    private Integer bandwidthBytesPerSecond;
+    private Fault fault;
+    private Integer chunkSize;
+
+    public boolean isEmpty() {
+        return fixedDelayMillis == null && delayDistribution == null && dribbleChunks == null
+                && bandwidthBytesPerSecond == null && fault == null && chunkSize == null;
+    }
+
+    /**
+     * Samples delay before the response, the fixed delay and the distribution are summed up.
+     */
+    public long sampleDelayMillis() {
+        long delay = fixedDelayMillis == null ? 0 : fixedDelayMillis;
+        return delayDistribution == null ? delay : delay + delayDistribution.sampleMillis();
+    }
+
+    public boolean isThrottled() {
+        return dribbleChunks != null || bandwidthBytesPerSecond != null;
+    }
+
+    /**
+     * Number of chunks a body of the given size is delivered in, bandwidth is emulated by a chunk per
+     * 1/{@value #BANDWIDTH_CHUNKS_PER_SECOND} of a second.
+     */
+    public int chunks(long bodySize) {
+        if (dribbleChunks != null) {
+            return dribbleChunks;
+        }
+        long chunkSize = Math.max(1, bandwidthBytesPerSecond / BANDWIDTH_CHUNKS_PER_SECOND);
+        return saturatedInt(Math.max(1, bodySize / chunkSize + (bodySize % chunkSize == 0 ? 0 : 1)));
+    }
+
+    /**
+     * Total time a body of the given size is delivered in, {@link Integer#MAX_VALUE} at most.
+     */
+    public int deliveryMillis(long bodySize) {
+        if (dribbleChunks != null) {
+            return dribbleDurationMillis;
+        }
+        long seconds = bodySize / bandwidthBytesPerSecond;
+        if (seconds >= Integer.MAX_VALUE / 1000) {
+            return Integer.MAX_VALUE;
+        }
+        return saturatedInt(seconds * 1000 + bodySize % bandwidthBytesPerSecond * 1000 / bandwidthBytesPerSecond);
+    }
+
+    private static int saturatedInt(long value) {
+        return (int) Math.min(value, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Exception a client observes because of the fault.
+     */
+    public IOException faultException() {
+        switch (fault) {
+            case CONNECTION_RESET_BY_PEER:
+                return new SocketException("Connection reset");
+            case EMPTY_RESPONSE:
+                return new IOException("Unexpected end of file from server");
+            default:
+                return new IOException("Malformed response: " + fault);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.vshpynta.mockserver;
+
+import lombok.experimental.UtilityClass;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Compiled scenario file layout: magic number, format version and the fields of the parsed call as
+ * {@link PlaceholderTemplate}s, each one being its literals, placeholder names and default values.
+ * The fields are directives, request method, path and host, request headers and body lines, response status,
+ * response headers and body lines; lists are prefixed with their size, headers are name and value pairs.
+ * Strings are written as UTF-8 bytes prefixed with their length, so long body lines are not limited
+ * like {@link DataOutput#writeUTF(String)}.
+ */
+@UtilityClass
+class ScenarioBinaryFormat {
+
+    static final String EXTENSION = ".bin";
+    static final int MAGIC = 0x4D534331;
+    static final int VERSION = 2;
+
+    private static final int NULL_LENGTH = -1;
+
+    /**
+     * Reads the magic number and the version, telling whether the rest can be read.
+     */
+    static boolean isSupported(DataInput in) throws IOException {
+        return in.readInt() == MAGIC && in.readInt() == VERSION;
+    }
+
+    static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+        byte[] bytes = value.getBytes(UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, UTF_8);
+    }
+}
@@ -0,0 +1,84 @@
+package com.vshpynta.mockserver;
+
+import lombok.SneakyThrows;
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.IOUtils;
+
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Build-time step compiling text scenario files into {@link ScenarioBinaryFormat}: every {@code name.txt} gets
+ * a {@code name.txt.bin} file next to it, which {@link MockServerCallParser} loads with a single read instead of
+ * parsing the text. Files bigger than the parser template limit are skipped, they are streamed from the text.
+ * <p>
+ * Usage: {@code ScenarioCompiler <directory>...}, e.g. run by {@code exec-maven-plugin} over
+ * {@code target/test-classes} in {@code process-test-classes} phase.
+ */
+@Slf4j
+@UtilityClass
+public class ScenarioCompiler {
+
+    private static final String SCENARIO_EXTENSION = ".txt";
+
+    public static void main(String[] args) {
+        int compiled = 0;
+        for (String directory : args) {
+            compiled += compileDirectory(Paths.get(directory)).size();
+        }
+        log.info("Compiled {} scenario file(s)", compiled);
+    }
+
+    /**
+     * Compiles all scenario files of the directory and its subdirectories.
+     *
+     * @return compiled files
+     */
+    @SneakyThrows
+    public static List<Path> compileDirectory(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return Collections.emptyList();
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files
+                    .filter(file -> file.getFileName().toString().endsWith(SCENARIO_EXTENSION))
+                    .filter(ScenarioCompiler::isCompilable)
+                    .map(ScenarioCompiler::compile)
+                    .collect(toList());
+        }
+    }
+
+    /**
+     * Compiles the scenario file.
+     *
+     * @return compiled file
+     */
+    @SneakyThrows
+    public static Path compile(Path scenarioFile) {
+        ScenarioTemplate template;
+        try (Reader reader = Files.newBufferedReader(scenarioFile, Charset.defaultCharset())) {
+            template = ScenarioTemplate.compile(scenarioFile.toString(), IOUtils.lineIterator(reader));
+        }
+        Path compiledFile = scenarioFile.resolveSibling(scenarioFile.getFileName() + ScenarioBinaryFormat.EXTENSION);
+        try (OutputStream out = Files.newOutputStream(compiledFile)) {
+            template.writeTo(out);
+        }
+        log.debug("Compiled scenario {}", scenarioFile);
+        return compiledFile;
+    }
+
+    @SneakyThrows
+    private static boolean isCompilable(Path scenarioFile) {
+        return Files.isRegularFile(scenarioFile) && Files.size(scenarioFile) <= MockServerCallParser.MAX_TEMPLATE_SIZE;
+    }
+}
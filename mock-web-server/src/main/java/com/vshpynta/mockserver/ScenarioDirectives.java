@@ -0,0 +1,181 @@
+package com.vshpynta.mockserver;
+
+import com.github.tomakehurst.wiremock.http.Fault;
+import com.github.tomakehurst.wiremock.http.LogNormal;
+import com.github.tomakehurst.wiremock.http.UniformDistribution;
+import lombok.SneakyThrows;
+import lombok.experimental.UtilityClass;
+
+import java.io.File;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import static java.lang.String.format;
+
+/**
+ * Scenario file directives: lines starting with {@code @} at the top of the file, before the request line.
+ * Times are in milliseconds.
+ * <pre>
+ * &#64;delay 200                      fixed delay
+ * &#64;delay uniform 100 300          uniformly distributed delay
+ * &#64;delay lognormal 90 0.1         log-normally distributed delay with given median and sigma
+ * &#64;chunked-dribble 5 1000         body delivered in 5 chunks during 1 second
+ * &#64;bandwidth 1024                 body delivered at 1024 bytes per second
+ * &#64;fault connection-reset         connection-reset, empty-response, malformed-response-chunk or
+ *                                  random-data-then-close
+ * &#64;body-file data/export.json     response body streamed from a classpath resource or a file
+ * &#64;body-generate json-array 1000 {"id":{{index}}}
+ *                                  response body generated while it is read, json-array or lines
+ * &#64;chunk-size 8192                response body written in chunks of at most 8192 bytes
+ * &#64;scenario pagination            stateful scenario the request is a step of, it starts in Started state
+ * &#64;state page-2                   state the scenario must be in for the request to match, any state if omitted
+ * &#64;next-state page-3              state the scenario moves to when the request matches
+ * </pre>
+ * A response body set by a directive cannot be followed by body lines. {@code @chunked-dribble} and {@code @bandwidth}
+ * exclude each other. {@code @state} and {@code @next-state} must follow {@code @scenario}. Delays and counts cannot be negative, chunk counts and sizes and bandwidth must be
+ * positive.
+ */
+@UtilityClass
+class ScenarioDirectives {
+
+    private static final String PREFIX = "@";
+
+    private static final Map<String, BiConsumer<String, MockServerCall>> directives = new HashMap<>();
+
+    static {
+        directives.put("delay", (arguments, call) -> {
+            String[] args = split(arguments);
+            ResponseProfile profile = call.getResponseProfile();
+            if (args.length == 1) {
+                profile.setFixedDelayMillis(nonNegative(args[0]));
+            } else if (args.length == 3 && "uniform".equals(args[0])) {
+                int lower = nonNegative(args[1]);
+                int upper = nonNegative(args[2]);
+                if (upper < lower) {
+                    throw new IllegalArgumentException("upper bound is less than lower bound");
+                }
+                profile.setDelayDistribution(new UniformDistribution(lower, upper));
+            } else if (args.length == 3 && "lognormal".equals(args[0])) {
+                double median = Double.parseDouble(args[1]);
+                double sigma = Double.parseDouble(args[2]);
+                if (!(median > 0) || !(sigma >= 0)) {
+                    throw new IllegalArgumentException("positive median and non-negative sigma expected");
+                }
+                profile.setDelayDistribution(new LogNormal(median, sigma));
+            } else {
+                throw new IllegalArgumentException("unexpected arguments");
+            }
+        });
+        directives.put("chunked-dribble", (arguments, call) -> {
+            String[] args = split(arguments, 2);
+            if (call.getResponseProfile().getBandwidthBytesPerSecond() != null) {
+                throw new IllegalArgumentException("cannot be combined with @bandwidth");
+            }
+            call.getResponseProfile().setDribbleChunks(positive(args[0]));
+            call.getResponseProfile().setDribbleDurationMillis(nonNegative(args[1]));
+        });
+        directives.put("bandwidth", (arguments, call) -> {
+            if (call.getResponseProfile().getDribbleChunks() != null) {
+                throw new IllegalArgumentException("cannot be combined with @chunked-dribble");
+            }
+            call.getResponseProfile().setBandwidthBytesPerSecond(positive(split(arguments, 1)[0]));
+        });
+        directives.put("fault", (arguments, call) -> {
+            String fault = split(arguments, 1)[0].toUpperCase().replace('-', '_');
+            call.getResponseProfile().setFault("CONNECTION_RESET".equals(fault)
+                    ? Fault.CONNECTION_RESET_BY_PEER : Fault.valueOf(fault));
+        });
+        directives.put("body-file", (arguments, call) ->
+                call.setResponseBodyContent(MockServerCallBody.streamed(new ResourceBody(resolve(split(arguments, 1)[0])))));
+        directives.put("body-generate", (arguments, call) -> {
+            String[] args = arguments.split("\\s+", 3);
+            if (args.length != 3) {
+                throw new IllegalArgumentException("unexpected arguments");
+            }
+            GeneratedBody.Format bodyFormat = GeneratedBody.Format.valueOf(args[0].toUpperCase().replace('-', '_'));
+            call.setResponseBodyContent(MockServerCallBody.streamed(
+                    new GeneratedBody(bodyFormat, nonNegative(args[1]), args[2])));
+        });
+        directives.put("chunk-size", (arguments, call) ->
+                call.getResponseProfile().setChunkSize(positive(split(arguments, 1)[0])));
+        directives.put("scenario", (arguments, call) -> call.setScenarioStep(new ScenarioStep(split(arguments, 1)[0])));
+        directives.put("state", (arguments, call) -> scenarioStep(call).setRequiredState(split(arguments, 1)[0]));
+        directives.put("next-state", (arguments, call) -> scenarioStep(call).setNextState(split(arguments, 1)[0]));
+    }
+
+    static boolean isDirective(String line) {
+        return line.startsWith(PREFIX);
+    }
+
+    static void apply(String line, MockServerCall call) {
+        String directive = line.substring(PREFIX.length()).trim();
+        int nameEnd = directive.indexOf(' ');
+        String name = nameEnd < 0 ? directive : directive.substring(0, nameEnd);
+        BiConsumer<String, MockServerCall> handler = directives.get(name);
+        if (handler == null) {
+            throw new IllegalArgumentException("Unknown scenario directive: " + line);
+        }
+        try {
+            handler.accept(nameEnd < 0 ? "" : directive.substring(nameEnd + 1).trim(), call);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(format("Invalid scenario directive: %s (%s)", line, e.getMessage()), e);
+        }
+    }
+
+    /**
+     * Error of the scenario file naming the file and the one-based number of the zero-based raw line.
+     */
+    static IllegalArgumentException invalidLine(String fileName, int lineNumber, IllegalArgumentException cause) {
+        return new IllegalArgumentException(format("%s:%d: %s", fileName, lineNumber + 1, cause.getMessage()), cause);
+    }
+
+    private static int positive(String argument) {
+        int value = Integer.parseInt(argument);
+        if (value <= 0) {
+            throw new IllegalArgumentException("positive number expected: " + argument);
+        }
+        return value;
+    }
+
+    private static int nonNegative(String argument) {
+        int value = Integer.parseInt(argument);
+        if (value < 0) {
+            throw new IllegalArgumentException("non-negative number expected: " + argument);
+        }
+        return value;
+    }
+
+    private static String[] split(String arguments) {
+        return arguments.isEmpty() ? new String[0] : arguments.split("\\s+");
+    }
+
+    private static String[] split(String arguments, int count) {
+        String[] args = split(arguments);
+        if (args.length != count) {
+            throw new IllegalArgumentException("expected " + count + " argument(s)");
+        }
+        return args;
+    }
+
+    private static ScenarioStep scenarioStep(MockServerCall call) {
+        if (call.getScenarioStep() == null) {
+            throw new IllegalArgumentException("@scenario directive expected first");
+        }
+        return call.getScenarioStep();
+    }
+
+    @SneakyThrows
+    private static URL resolve(String path) {
+        URL resource = ScenarioDirectives.class.getClassLoader().getResource(path);
+        if (resource != null) {
+            return resource;
+        }
+        File file = new File(path);
+        if (!file.isFile()) {
+            throw new IllegalArgumentException("body file not found");
+        }
+        return file.toURI().toURL();
+    }
+}
@@ -0,0 +1,56 @@
+package com.vshpynta.mockserver;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.LineIterator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URL;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Response body of a scenario file too big to be cached as a template: its lines, starting at the given line,
+ * are read from the file and their placeholders substituted each time the body is read.
+ */
+public final class ScenarioFileBody implements MockServerCallBody.Source {
+
+    private final URL resource;
+    private final int bodyLineNumber;
+    private final Map<String, Object> context;
+
+    public ScenarioFileBody(URL resource, int bodyLineNumber, Map<String, Object> context) {
+        this.resource = resource;
+        this.bodyLineNumber = bodyLineNumber;
+        this.context = Collections.unmodifiableMap(new HashMap<>(context));
+    }
+
+    public URL getResource() {
+        return resource;
+    }
+
+    /**
+     * Number of lines before the body.
+     */
+    public int getBodyLineNumber() {
+        return bodyLineNumber;
+    }
+
+    public Map<String, Object> getContext() {
+        return context;
+    }
+
+    @Override
+    public InputStream open() throws IOException {
+        Reader reader = new BufferedReader(new InputStreamReader(resource.openStream()));
+        LineIterator rawLines = IOUtils.lineIterator(reader);
+        for (int i = 0; i < bodyLineNumber && rawLines.hasNext(); i++) {
+            rawLines.next();
+        }
+        return new LineInputStream(new ScenarioLines(rawLines, context), reader);
+    }
+}
@@ -0,0 +1,92 @@
+package com.vshpynta.mockserver;
+
+import lombok.SneakyThrows;
+import lombok.experimental.UtilityClass;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.util.AntPathMatcher;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Index of scenario resources on the classpath, used to expand directories and Ant-style globs given to
+ * {@link MockServerScenario}, e.g. {@code mock/servers/} or {@code mock/servers/**}{@code /update-*.txt}.
+ * <p>
+ * A directory is scanned once per JVM, when a pattern under it is expanded first, and only resource names are
+ * kept: files are read when a test parses them.
+ */
+@UtilityClass
+public class ScenarioIndex {
+
+    private static final String SCENARIO_PATTERN = "**/*.txt";
+    private static final char DIRECTORY_SEPARATOR = '/';
+
+    private static final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private static final PathMatchingResourcePatternResolver resolver =
+            new PathMatchingResourcePatternResolver(ScenarioIndex.class.getClassLoader());
+    private static final Map<String, List<String>> directories = new ConcurrentHashMap<>();
+    private static final Map<String, List<String>> patterns = new ConcurrentHashMap<>();
+
+    /**
+     * Expands a directory (ending with {@code /}) to all its scenario files and a glob to the matching ones,
+     * sorted by name. Other paths are returned as is.
+     */
+    public static List<String> resolve(String scenario) {
+        if (scenario.isEmpty()) {
+            return Collections.singletonList(scenario);
+        }
+        boolean directory = scenario.charAt(scenario.length() - 1) == DIRECTORY_SEPARATOR;
+        if (!directory && !pathMatcher.isPattern(scenario)) {
+            return Collections.singletonList(scenario);
+        }
+        return patterns.computeIfAbsent(scenario, pattern -> match(directory ? pattern + SCENARIO_PATTERN : pattern));
+    }
+
+    private static List<String> match(String pattern) {
+        return directories.computeIfAbsent(rootDirectory(pattern), ScenarioIndex::scan).stream()
+                .filter(name -> pathMatcher.match(pattern, name))
+                .collect(toList());
+    }
+
+    private static String rootDirectory(String pattern) {
+        int wildcard = 0;
+        while (wildcard < pattern.length() && "*?{".indexOf(pattern.charAt(wildcard)) < 0) {
+            wildcard++;
+        }
+        return pattern.substring(0, pattern.lastIndexOf(DIRECTORY_SEPARATOR, wildcard) + 1);
+    }
+
+    /**
+     * Lists names of scenario resources under the directory in all classpath roots.
+     */
+    @SneakyThrows
+    private static List<String> scan(String directory) {
+        List<String> roots = new ArrayList<>();
+        Enumeration<URL> rootUrls = ScenarioIndex.class.getClassLoader().getResources(directory);
+        while (rootUrls.hasMoreElements()) {
+            roots.add(rootUrls.nextElement().toExternalForm());
+        }
+        TreeSet<String> names = new TreeSet<>();
+        for (Resource resource : resolver.getResources("classpath*:" + directory + SCENARIO_PATTERN)) {
+            String url = resource.getURL().toExternalForm();
+            roots.stream()
+                    .filter(url::startsWith)
+                    .findFirst()
+                    .ifPresent(root -> names.add(directory + trimLeadingSeparator(url.substring(root.length()))));
+        }
+        return Collections.unmodifiableList(new ArrayList<>(names));
+    }
+
+    private static String trimLeadingSeparator(String path) {
+        return !path.isEmpty() && path.charAt(0) == DIRECTORY_SEPARATOR ? path.substring(1) : path;
+    }
+}
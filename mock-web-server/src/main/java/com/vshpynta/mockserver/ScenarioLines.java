@@ -0,0 +1,72 @@
+package com.vshpynta.mockserver;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+/**
+ * Lazily reads meaningful lines of a scenario file: comments and repeated blank lines are skipped and,
+ * if a context is given, placeholders are substituted. Raw lines are pulled one by one, so the file is never
+ * materialized.
+ */
+final class ScenarioLines implements Iterator<String> {
+
+    private final Iterator<String> rawLines;
+    private final Map<String, Object> context;
+    private final StringBuilder buffer = new StringBuilder();
+
+    private String next;
+    private boolean lastEmpty = true;
+    private int rawLineNumber;
+    private int lineNumber;
+
+    ScenarioLines(Iterator<String> rawLines, Map<String, Object> context) {
+        this.rawLines = rawLines;
+        this.context = context;
+    }
+
+    ScenarioLines(Iterator<String> rawLines) {
+        this(rawLines, null);
+    }
+
+    /**
+     * Returns zero-based number of the raw line returned last.
+     */
+    int getLineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (next == null && rawLines.hasNext()) {
+            String line = rawLines.next();
+            rawLineNumber++;
+            if (line.startsWith("#")) {
+                continue;
+            }
+            boolean emptyLine = isBlank(line);
+            if (!emptyLine || !lastEmpty) {
+                next = line;
+            }
+            lastEmpty = emptyLine;
+        }
+        return next != null;
+    }
+
+    @Override
+    public String next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        String line = next;
+        next = null;
+        lineNumber = rawLineNumber - 1;
+        if (context == null) {
+            return line;
+        }
+        buffer.setLength(0);
+        return PlaceholderTemplate.substitute(line, context, buffer).toString();
+    }
+}
@@ -0,0 +1,215 @@
+package com.vshpynta.mockserver;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.common.Slf4jNotifier;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.google.common.collect.ImmutableMap;
+import lombok.Builder;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.vshpynta.mockserver.MockServerCallParser.parseFile;
+import static com.vshpynta.mockserver.WireMockServerConfigurer.stubRequestsUnderPath;
+import static com.vshpynta.mockserver.WireMockServerCreator.createWireMockServer;
+import static com.vshpynta.mockserver.WireMockServerCreator.defaultWireMockConfig;
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Load generator which uses scenario files as performance fixtures: stubs the scenarios in a WireMock server
+ * and sends their requests to it, round robin, from a pool of worker threads. Each worker keeps its HTTP
+ * connection alive, so the run measures the client and the stubs rather than connection setup.
+ * <pre>
+ * ScenarioLoadReport report = ScenarioLoadDriver.builder()
+ *         .scenarios(asList("mock/servers/"))
+ *         .threads(16)
+ *         .requests(100_000)
+ *         .build()
+ *         .run();
+ * </pre>
+ */
+@Slf4j
+public final class ScenarioLoadDriver {
+
+    private static final int DEFAULT_REQUESTS = 1000;
+    private static final int SERVER_STARTUP_TIMEOUT_SECONDS = 10;
+    private static final int BUFFER_SIZE = 8192;
+    private static final int DEFAULT_CONTAINER_THREADS = 10;
+
+    private final List<String> scenarios;
+    private final Map<String, Object> placeholdersValues;
+    private final WireMockServer wireMockServer;
+    private final int threads;
+    private final int requests;
+    private final Duration duration;
+    private final Duration warmup;
+
+    /**
+     * @param scenarios      scenario files, directories or globs, see {@link ScenarioIndex}
+     * @param wireMockServer server to stub the scenarios in, a server is started for the run by default
+     * @param threads        concurrent clients, twice the number of processors by default
+     * @param requests       requests to send, 1000 by default
+     * @param duration       if set, requests are sent until it elapses or their number is reached
+     * @param warmup         if set, requests are sent but not measured during it before the run
+     */
+    @Builder
+    private ScenarioLoadDriver(List<String> scenarios,
+                               Map<String, Object> placeholdersValues,
+                               WireMockServer wireMockServer,
+                               Integer threads,
+                               Integer requests,
+                               Duration duration,
+                               Duration warmup) {
+        this.scenarios = scenarios;
+        this.placeholdersValues = placeholdersValues != null ? placeholdersValues : ImmutableMap.of();
+        this.wireMockServer = wireMockServer;
+        this.threads = threads != null ? threads : Runtime.getRuntime().availableProcessors() * 2;
+        this.requests = requests != null ? requests : DEFAULT_REQUESTS;
+        this.duration = duration;
+        this.warmup = warmup;
+    }
+
+    /**
+     * Driver builder for the scenarios of the annotation.
+     */
+    public static ScenarioLoadDriverBuilder forScenario(MockServerScenario serverScenario) {
+        return builder().scenarios(asList(serverScenario.value()));
+    }
+
+    @SneakyThrows
+    public ScenarioLoadReport run() {
+        List<String> files = scenarios.stream()
+                .flatMap(scenario -> ScenarioIndex.resolve(scenario).stream())
+                .filter(file -> !file.isEmpty())
+                .collect(toList());
+        if (files.isEmpty()) {
+            throw new IllegalArgumentException("No scenario files found: " + scenarios);
+        }
+        List<MockServerCall> calls = files.stream()
+                .map(file -> parseFile(file, placeholdersValues))
+                .collect(toList());
+        WireMockServer server = wireMockServer != null ? wireMockServer : startServer();
+        List<StubMapping> stubMappings = stubRequestsUnderPath(server, "", files.stream()
+                .map(file -> RequestStubConfig.of(file, placeholdersValues))
+                .collect(toList()));
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "scenario-load-driver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            String baseUrl = "http://localhost:" + server.port();
+            if (warmup != null) {
+                drive(executor, baseUrl, calls, Integer.MAX_VALUE, warmup);
+            }
+            ScenarioLoadReport report = drive(executor, baseUrl, calls, requests, duration);
+            log.info("Load of {}: {}", scenarios, report);
+            return report;
+        } finally {
+            executor.shutdownNow();
+            if (wireMockServer != null) {
+                stubMappings.forEach(server::removeStubMapping);
+            } else {
+                server.stop();
+            }
+        }
+    }
+
+    private ScenarioLoadReport drive(ExecutorService executor,
+                                     String baseUrl,
+                                     List<MockServerCall> calls,
+                                     int maxRequests,
+                                     Duration maxDuration) throws Exception {
+        AtomicInteger issued = new AtomicInteger();
+        AtomicLong completed = new AtomicLong();
+        LongAdder errors = new LongAdder();
+        LatencyHistogram latency = new LatencyHistogram();
+        long start = System.nanoTime();
+        long deadline = maxDuration != null ? start + maxDuration.toNanos() : Long.MAX_VALUE;
+        List<Future<?>> workers = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            workers.add(executor.submit(() -> {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int request;
+                while (System.nanoTime() < deadline && (request = issued.getAndIncrement()) < maxRequests) {
+                    MockServerCall call = calls.get(request % calls.size());
+                    long requestStart = System.nanoTime();
+                    boolean success = send(baseUrl, call, buffer);
+                    latency.record(System.nanoTime() - requestStart);
+                    completed.incrementAndGet();
+                    if (!success) {
+                        errors.increment();
+                    }
+                }
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        return new ScenarioLoadReport(completed.get(), errors.sum(), Duration.ofNanos(System.nanoTime() - start), latency);
+    }
+
+    /**
+     * Sends the scenario request and reads the whole response, so the connection is reused by the next request.
+     *
+     * @return whether the response has the scenario status
+     */
+    private static boolean send(String baseUrl, MockServerCall call, byte[] buffer) {
+        HttpURLConnection connection = null;
+        try {
+            connection = (HttpURLConnection) new URL(baseUrl + call.getRequestPath()).openConnection();
+            connection.setRequestMethod(call.getRequestMethod().name());
+            HttpURLConnection target = connection;
+            call.getRequestHeaders().forEach((name, values) -> values.forEach(value -> target.addRequestProperty(name, value)));
+            byte[] body = call.getRequestBodyContent() == null ? null : call.getRequestBodyContent().bytes();
+            if (body != null && body.length > 0) {
+                connection.setDoOutput(true);
+                connection.setFixedLengthStreamingMode(body.length);
+                try (OutputStream out = connection.getOutputStream()) {
+                    out.write(body);
+                }
+            }
+            int status = connection.getResponseCode();
+            try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+                if (in != null) {
+                    while (in.read(buffer) >= 0) {
+                        // drains the response
+                    }
+                }
+            }
+            return status == call.getResponseStatus().value();
+        } catch (IOException e) {
+            if (connection != null) {
+                connection.disconnect();
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Server for the run: quiet, without request journal and with a container thread per client on top of
+     * the WireMock default.
+     */
+    private WireMockServer startServer() {
+        return createWireMockServer(defaultWireMockConfig()
+                .notifier(new Slf4jNotifier(false))
+                .disableRequestJournal()
+                .containerThreads(DEFAULT_CONTAINER_THREADS + threads), SERVER_STARTUP_TIMEOUT_SECONDS);
+    }
+}
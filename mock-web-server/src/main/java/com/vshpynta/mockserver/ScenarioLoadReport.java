@@ -0,0 +1,47 @@
+package com.vshpynta.mockserver;
+
+import lombok.Value;
+
+import java.time.Duration;
+
+import static java.lang.String.format;
+
+/**
+ * Result of a {@link ScenarioLoadDriver} run: request counts, throughput and latency distribution.
+ */
+@Value
+public class ScenarioLoadReport {
+
+    private long requests;
+    /**
+     * Requests which failed with an I/O error or were answered with a status other than the scenario's one.
+     */
+    private long errors;
+    private Duration elapsedTime;
+    private LatencyHistogram latency;
+
+    /**
+     * Requests per second.
+     */
+    public double getThroughput() {
+        long elapsedNanos = elapsedTime.toNanos();
+        return elapsedNanos == 0 ? 0 : requests * 1e9 / elapsedNanos;
+    }
+
+    public Duration getLatencyPercentile(double percentile) {
+        return latency.getPercentile(percentile);
+    }
+
+    @Override
+    public String toString() {
+        return format("%d requests, %d errors in %d ms, %.1f requests/s, latency p50 %.2f ms, p90 %.2f ms, "
+                        + "p99 %.2f ms, p99.9 %.2f ms, max %.2f ms",
+                requests, errors, elapsedTime.toMillis(), getThroughput(),
+                millis(getLatencyPercentile(50)), millis(getLatencyPercentile(90)), millis(getLatencyPercentile(99)),
+                millis(getLatencyPercentile(99.9)), millis(latency.getMax()));
+    }
+
+    private static double millis(Duration duration) {
+        return duration.toNanos() / 1e6;
+    }
+}
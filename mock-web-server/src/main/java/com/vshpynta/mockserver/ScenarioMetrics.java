@@ -0,0 +1,62 @@
+package com.vshpynta.mockserver;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and timings of one scenario file: how many requests were matched against it, how many of them it
+ * answered and how long matching and response creation took.
+ */
+public final class ScenarioMetrics {
+
+    private final String scenario;
+    private final LongAdder matchAttempts = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LatencyHistogram matchTime = new LatencyHistogram();
+    private final LatencyHistogram responseTime = new LatencyHistogram();
+
+    ScenarioMetrics(String scenario) {
+        this.scenario = scenario;
+    }
+
+    public String getScenario() {
+        return scenario;
+    }
+
+    public long getMatchAttempts() {
+        return matchAttempts.sum();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public LatencyHistogram getMatchTime() {
+        return matchTime;
+    }
+
+    /**
+     * Response creation times of scenarios served by {@link MockServerRule}, empty for scenarios served by WireMock,
+     * see {@link ScenarioMetricsAction}.
+     */
+    public LatencyHistogram getResponseTime() {
+        return responseTime;
+    }
+
+    void recordMatch(long nanos) {
+        matchAttempts.increment();
+        matchTime.record(nanos);
+    }
+
+    void recordMatchAttempts(long attempts) {
+        matchAttempts.add(attempts);
+    }
+
+    void recordHit() {
+        hits.increment();
+    }
+
+    void recordHit(long responseNanos) {
+        hits.increment();
+        responseTime.record(responseNanos);
+    }
+}
@@ -0,0 +1,116 @@
+package com.vshpynta.mockserver;
+
+import com.github.tomakehurst.wiremock.core.Admin;
+import com.github.tomakehurst.wiremock.extension.PostServeAction;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.matching.RequestPattern;
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import lombok.RequiredArgsConstructor;
+
+import java.net.URI;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records every request served by WireMock into {@link MockServerMetrics} of the rules subscribed to its server:
+ * the request is a match attempt of each scenario of the rule stubbing its method and URL, the matched scenario
+ * gets a hit. Requests answered by stubs of ignored paths or received before the subscription are not recorded.
+ * Is registered in servers created by {@link WireMockServerCreator}.
+ * <p>
+ * No timings are recorded: WireMock measures processing time in whole milliseconds, which would put zeros
+ * next to the nanosecond timings of {@link MockServerRule} scenarios.
+ */
+public class ScenarioMetricsAction extends PostServeAction {
+
+    public static final String NAME = "scenario-metrics";
+
+    private static final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public void doGlobalAction(ServeEvent serveEvent, Admin admin) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        URI uri = URI.create(serveEvent.getRequest().getAbsoluteUrl());
+        StubMapping stubMapping = serveEvent.getStubMapping();
+        Date received = serveEvent.getRequest().getLoggedDate();
+        for (Subscription subscription : subscriptions) {
+            if (subscription.port == uri.getPort() && isUnder(uri.getPath(), subscription.pathPrefix)
+                    && !received.before(subscription.subscribed)) {
+                subscription.record(serveEvent.getRequest(), stubMapping == null ? null : stubMapping.getId());
+            }
+        }
+    }
+
+    /**
+     * Whether the path is the prefix or below it, {@code /lease-10} is not under {@code /lease-1}.
+     */
+    static boolean isUnder(String path, String pathPrefix) {
+        return path.startsWith(pathPrefix)
+                && (path.length() == pathPrefix.length() || pathPrefix.isEmpty() || path.charAt(pathPrefix.length()) == '/');
+    }
+
+    /**
+     * Starts recording requests served on the port under the path prefix for the given stubs.
+     *
+     * @param scenarios     scenario files by stub id
+     * @param scenarioStubs stubs of the scenario files
+     */
+    static Subscription subscribe(int port,
+                                  String pathPrefix,
+                                  Map<UUID, String> scenarios,
+                                  List<StubMapping> scenarioStubs,
+                                  Set<UUID> ignoredStubs,
+                                  MockServerMetrics metrics) {
+        Subscription subscription = new Subscription(port, pathPrefix, scenarios, scenarioStubs, ignoredStubs, metrics);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @RequiredArgsConstructor
+    static final class Subscription implements AutoCloseable {
+
+        private final int port;
+        private final String pathPrefix;
+        private final Map<UUID, String> scenarios;
+        private final List<StubMapping> scenarioStubs;
+        private final Set<UUID> ignoredStubs;
+        private final MockServerMetrics metrics;
+        private final Date subscribed = new Date();
+
+        private void record(Request request, UUID stubId) {
+            if (stubId != null && ignoredStubs.contains(stubId)) {
+                return;
+            }
+            for (StubMapping stubMapping : scenarioStubs) {
+                if (isEndpointOf(stubMapping.getRequest(), request)) {
+                    metrics.scenario(scenarios.get(stubMapping.getId())).recordMatchAttempts(1);
+                }
+            }
+            String scenario = stubId == null ? null : scenarios.get(stubId);
+            if (scenario != null) {
+                metrics.scenario(scenario).recordHit();
+            }
+        }
+
+        private static boolean isEndpointOf(RequestPattern pattern, Request request) {
+            return pattern.getMethod().match(request.getMethod()).isExactMatch()
+                    && pattern.getUrlMatcher().match(request.getUrl()).isExactMatch();
+        }
+
+        @Override
+        public void close() {
+            subscriptions.remove(this);
+        }
+    }
+}
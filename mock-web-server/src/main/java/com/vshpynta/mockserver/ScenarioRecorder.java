@@ -0,0 +1,247 @@
+package com.vshpynta.mockserver;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.common.Gzip;
+import com.github.tomakehurst.wiremock.http.HttpHeader;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.Response;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.google.common.collect.ImmutableSet;
+import lombok.Builder;
+import lombok.SneakyThrows;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.any;
+import static com.github.tomakehurst.wiremock.client.WireMock.anyUrl;
+import static java.lang.String.CASE_INSENSITIVE_ORDER;
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Records traffic proxied by a WireMock server to an upstream service as scenario files, in the format read by
+ * {@link MockServerCallParser}.
+ * <p>
+ * Raw exchanges are captured on the server threads into a bounded queue, converted and written to files in batches
+ * by a background thread, so recording neither delays nor breaks the proxied calls. When the queue is full,
+ * exchanges are dropped and counted rather than blocking the traffic. Exchanges the scenario format cannot express,
+ * e.g. with a non-standard status code, are logged and skipped.
+ */
+@Slf4j
+public final class ScenarioRecorder implements AutoCloseable {
+
+    private static final int DEFAULT_BATCH_SIZE = 100;
+    private static final int DEFAULT_QUEUE_CAPACITY = 10_000;
+    private static final Duration DEFAULT_FLUSH_INTERVAL = Duration.ofMillis(100);
+    private static final int PROXY_PRIORITY = Integer.MAX_VALUE;
+    private static final int MAX_NAME_LENGTH = 100;
+    private static final Set<String> SKIPPED_RESPONSE_HEADERS = ImmutableSet.of(
+            "Content-Length", "Transfer-Encoding", "Content-Encoding", "Connection", "Date", "Server", "Keep-Alive",
+            "Matched-Stub-Id");
+
+    private final WireMockServer wireMockServer;
+    private final String upstreamUrl;
+    private final String requestHost;
+    private final Path outputDirectory;
+    private final Set<String> recordedRequestHeaders;
+    private final int batchSize;
+    private final BlockingQueue<Exchange> exchanges;
+    private final ScheduledExecutorService writer;
+    private final AtomicInteger sequence = new AtomicInteger();
+    private final LongAdder writtenFiles = new LongAdder();
+    private final LongAdder droppedExchanges = new LongAdder();
+
+    private volatile boolean recording;
+    private boolean listening;
+    private StubMapping proxyMapping;
+
+    /**
+     * @param requestHost            host written to scenarios, the upstream host by default
+     * @param recordedRequestHeaders request headers written to scenarios, they become part of request matching;
+     *                               {@code Content-Type} by default
+     */
+    @Builder
+    private ScenarioRecorder(WireMockServer wireMockServer,
+                             String upstreamUrl,
+                             Path outputDirectory,
+                             String requestHost,
+                             Set<String> recordedRequestHeaders,
+                             Integer batchSize,
+                             Integer queueCapacity,
+                             Duration flushInterval) {
+        this.wireMockServer = wireMockServer;
+        this.upstreamUrl = upstreamUrl;
+        this.requestHost = requestHost != null ? requestHost : URI.create(upstreamUrl).getHost();
+        this.outputDirectory = outputDirectory;
+        this.recordedRequestHeaders = new TreeSet<>(CASE_INSENSITIVE_ORDER);
+        this.recordedRequestHeaders.addAll(recordedRequestHeaders != null ? recordedRequestHeaders
+                : ImmutableSet.of(HttpHeaders.CONTENT_TYPE));
+        this.batchSize = batchSize != null ? batchSize : DEFAULT_BATCH_SIZE;
+        this.exchanges = new ArrayBlockingQueue<>(queueCapacity != null ? queueCapacity : DEFAULT_QUEUE_CAPACITY);
+        this.writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "scenario-recorder");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long flushMillis = (flushInterval != null ? flushInterval : DEFAULT_FLUSH_INTERVAL).toMillis();
+        writer.scheduleWithFixedDelay(this::writeQueued, flushMillis, flushMillis, MILLISECONDS);
+    }
+
+    /**
+     * Starts proxying all requests not matched by other stubs to the upstream and recording them.
+     */
+    @SneakyThrows
+    public synchronized void start() {
+        if (recording) {
+            return;
+        }
+        Files.createDirectories(outputDirectory);
+        if (!listening) {
+            wireMockServer.addMockServiceRequestListener(this::capture);
+            listening = true;
+        }
+        proxyMapping = wireMockServer.stubFor(any(anyUrl())
+                .atPriority(PROXY_PRIORITY)
+                .willReturn(aResponse().proxiedFrom(upstreamUrl)));
+        recording = true;
+    }
+
+    /**
+     * Stops recording and waits until captured exchanges are written.
+     */
+    public synchronized void stop() {
+        if (!recording) {
+            return;
+        }
+        recording = false;
+        wireMockServer.removeStubMapping(proxyMapping);
+        flush();
+    }
+
+    /**
+     * Waits until exchanges captured so far are written.
+     */
+    @SneakyThrows
+    public void flush() {
+        writer.submit(this::writeQueued).get();
+    }
+
+    public long getWrittenFiles() {
+        return writtenFiles.sum();
+    }
+
+    public long getDroppedExchanges() {
+        return droppedExchanges.sum();
+    }
+
+    @Override
+    public void close() {
+        stop();
+        writer.shutdown();
+    }
+
+    private void capture(Request request, Response response) {
+        if (!recording || !response.isFromProxy()) {
+            return;
+        }
+        Exchange exchange = new Exchange(request.getMethod().getName(), request.getUrl(), request.getHeaders(),
+                request.getBody(), response.getStatus(), response.getHeaders(), response.getBody());
+        if (!exchanges.offer(exchange)) {
+            droppedExchanges.increment();
+        }
+    }
+
+    private MockServerCall toMockServerCall(Exchange exchange) {
+        HttpMethod method = HttpMethod.resolve(exchange.getMethod());
+        if (method == null) {
+            throw new IllegalArgumentException("Unsupported HTTP method " + exchange.getMethod());
+        }
+        MockServerCall call = new MockServerCall();
+        call.setRequestMethod(method);
+        call.setRequestHost(requestHost);
+        call.setRequestPath(exchange.getUrl());
+        for (HttpHeader header : exchange.getRequestHeaders().all()) {
+            if (recordedRequestHeaders.contains(header.key())) {
+                call.getRequestHeaders().put(header.key(), new ArrayList<>(header.values()));
+            }
+        }
+        call.setRequestBody(exchange.getRequestBody());
+        call.setResponseStatus(HttpStatus.valueOf(exchange.getStatus()));
+        boolean gzipped = false;
+        for (HttpHeader header : exchange.getResponseHeaders().all()) {
+            gzipped |= header.key().equalsIgnoreCase("Content-Encoding") && header.containsValue("gzip");
+            if (SKIPPED_RESPONSE_HEADERS.stream().noneMatch(header.key()::equalsIgnoreCase)) {
+                call.getResponseHeaders().put(header.key(), new ArrayList<>(header.values()));
+            }
+        }
+        byte[] body = exchange.getResponseBody();
+        call.setResponseBody(gzipped ? Gzip.unGzip(body) : body);
+        return call;
+    }
+
+    private void writeQueued() {
+        List<Exchange> batch = new ArrayList<>(batchSize);
+        while (exchanges.drainTo(batch, batchSize) > 0) {
+            for (Exchange exchange : batch) {
+                try {
+                    write(toMockServerCall(exchange));
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Cannot write recorded {} {}: {}", exchange.getMethod(), exchange.getUrl(), e.getMessage());
+                }
+            }
+            batch.clear();
+        }
+    }
+
+    private void write(MockServerCall call) throws IOException {
+        Path file = outputDirectory.resolve(fileName(call));
+        try (Writer out = Files.newBufferedWriter(file, Charset.defaultCharset())) {
+            MockServerCallWriter.write(call, out);
+        }
+        writtenFiles.increment();
+    }
+
+    private String fileName(MockServerCall call) {
+        String name = (call.getRequestMethod() + call.getUri().getPath()).toLowerCase()
+                .replaceAll("[^a-z0-9]+", "-")
+                .replaceAll("-$", "");
+        return format("%04d-%s.txt", sequence.incrementAndGet(),
+                name.length() > MAX_NAME_LENGTH ? name.substring(0, MAX_NAME_LENGTH) : name);
+    }
+
+    /**
+     * Proxied exchange as captured on the server thread.
+     */
+    @Value
+    private static class Exchange {
+        private String method;
+        private String url;
+        private com.github.tomakehurst.wiremock.http.HttpHeaders requestHeaders;
+        private byte[] requestBody;
+        private int status;
+        private com.github.tomakehurst.wiremock.http.HttpHeaders responseHeaders;
+        private byte[] responseBody;
+    }
+}
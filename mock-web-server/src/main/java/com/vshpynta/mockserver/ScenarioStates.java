@@ -0,0 +1,63 @@
+package com.vshpynta.mockserver;
+
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.lang.String.format;
+
+/**
+ * Current states of stateful scenarios, each one starts in {@value #STARTED} state like a WireMock scenario.
+ * Matching a request only reads the state, the step is taken by a single compare-and-set once the request is
+ * committed to the step, so concurrent requests never take steps from the same state twice and no lock is held.
+ */
+final class ScenarioStates {
+
+    static final String STARTED = Scenario.STARTED;
+
+    private final Map<String, AtomicReference<String>> states = new ConcurrentHashMap<>();
+
+    /**
+     * Checks the step against the current state of its scenario without taking it.
+     *
+     * @return description of the mismatch or {@code null} if the scenario is in the required state
+     */
+    String mismatch(ScenarioStep step) {
+        String current = state(step).get();
+        if (step.getRequiredState() != null && !step.getRequiredState().equals(current)) {
+            return format("Unexpected state of scenario %s expected:<%s> but was:<%s>",
+                    step.getScenario(), step.getRequiredState(), current);
+        }
+        return null;
+    }
+
+    /**
+     * Takes the step if its scenario is still in the required state.
+     *
+     * @return {@code false} if another request has moved the scenario to a different state
+     */
+    boolean transition(ScenarioStep step) {
+        AtomicReference<String> state = state(step);
+        while (true) {
+            String current = state.get();
+            if (step.getRequiredState() != null && !step.getRequiredState().equals(current)) {
+                return false;
+            }
+            if (step.getNextState() == null || Objects.equals(step.getNextState(), current)
+                    || state.compareAndSet(current, step.getNextState())) {
+                return true;
+            }
+        }
+    }
+
+    void reset() {
+        states.clear();
+    }
+
+    private AtomicReference<String> state(ScenarioStep step) {
+        return states.computeIfAbsent(step.getScenario(), scenario -> new AtomicReference<>(STARTED));
+    }
+}
@@ -0,0 +1,24 @@
+package com.vshpynta.mockserver;
+
+import lombok.Data;
+
+/**
+ * Step of a stateful scenario, set by {@code @scenario}, {@code @state} and {@code @next-state} directives,
+ * see {@link ScenarioDirectives}: the request matches only while the scenario is in the required state and moves
+ * the scenario to the next one.
+ */
+@Data
+public class ScenarioStep {
+
+    private final String scenario;
+
+    /**
+     * State the scenario must be in, {@code null} if the step matches in any state.
+     */
+    private String requiredState;
+
+    /**
+     * State the scenario moves to, {@code null} if the step keeps the current state.
+     */
+    private String nextState;
+}
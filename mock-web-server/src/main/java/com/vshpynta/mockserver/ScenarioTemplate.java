@@ -0,0 +1,297 @@
+package com.vshpynta.mockserver;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.apache.commons.lang3.StringUtils.isBlank;
+import static org.apache.commons.lang3.StringUtils.substringAfter;
+import static org.apache.commons.lang3.StringUtils.substringBefore;
+
+/**
+ * Pre-parsed scenario file: every field of the call is kept as a {@link PlaceholderTemplate}, so binding
+ * a context fills a new {@link MockServerCall} directly, without parsing lines again.
+ * The structure is decided by the text before substitution, placeholders only fill the fields.
+ * Directives are applied when the template is bound, as their arguments may have placeholders.
+ */
+final class ScenarioTemplate {
+
+    private final List<PlaceholderTemplate> directives;
+    private final PlaceholderTemplate requestMethod;
+    private final PlaceholderTemplate requestPath;
+    private final PlaceholderTemplate requestHost;
+    private final List<Header> requestHeaders;
+    private final List<PlaceholderTemplate> requestBody;
+    private final PlaceholderTemplate responseStatus;
+    private final List<Header> responseHeaders;
+    private final List<PlaceholderTemplate> responseBody;
+
+    private ScenarioTemplate(List<PlaceholderTemplate> directives,
+                             PlaceholderTemplate requestMethod,
+                             PlaceholderTemplate requestPath,
+                             PlaceholderTemplate requestHost,
+                             List<Header> requestHeaders,
+                             List<PlaceholderTemplate> requestBody,
+                             PlaceholderTemplate responseStatus,
+                             List<Header> responseHeaders,
+                             List<PlaceholderTemplate> responseBody) {
+        this.directives = directives;
+        this.requestMethod = requestMethod;
+        this.requestPath = requestPath;
+        this.requestHost = requestHost;
+        this.requestHeaders = requestHeaders;
+        this.requestBody = requestBody;
+        this.responseStatus = responseStatus;
+        this.responseHeaders = responseHeaders;
+        this.responseBody = responseBody;
+    }
+
+    /**
+     * Compiles the lines of the named scenario file, splitting them into the fields of the call.
+     * Directives without placeholders are checked here, where the raw line numbers are still known.
+     */
+    static ScenarioTemplate compile(String fileName, Iterator<String> rawLines) {
+        ScenarioLines lines = new ScenarioLines(rawLines);
+        MockServerCall directivesCall = new MockServerCall();
+        List<PlaceholderTemplate> directives = new ArrayList<>();
+        String line = nextLine(lines);
+        while (line != null && (isBlank(line) || ScenarioDirectives.isDirective(line))) {
+            if (!isBlank(line)) {
+                PlaceholderTemplate directive = PlaceholderTemplate.compile(line);
+                if (!directive.hasPlaceholders()) {
+                    try {
+                        ScenarioDirectives.apply(line, directivesCall);
+                    } catch (IllegalArgumentException e) {
+                        throw ScenarioDirectives.invalidLine(fileName, lines.getLineNumber(), e);
+                    }
+                }
+                directives.add(directive);
+            }
+            line = nextLine(lines);
+        }
+
+        PlaceholderTemplate requestMethod = null;
+        PlaceholderTemplate requestPath = null;
+        if (line != null) {
+            String[] parts = line.split(" ");
+            requestMethod = PlaceholderTemplate.compile(parts[0]);
+            requestPath = PlaceholderTemplate.compile(parts[1]);
+            line = nextLine(lines);
+        }
+        PlaceholderTemplate requestHost = null;
+        if (line != null) {
+            requestHost = PlaceholderTemplate.compile(substringAfter(line, ": ").trim());
+            line = nextLine(lines);
+        }
+        List<Header> requestHeaders = new ArrayList<>();
+        line = headers(lines, line, requestHeaders);
+        List<PlaceholderTemplate> requestBody = new ArrayList<>();
+        while (line != null && !isBlank(line) && !line.startsWith("HTTP")) {
+            requestBody.add(PlaceholderTemplate.compile(line));
+            line = nextLine(lines);
+        }
+        if (line != null && isBlank(line)) {
+            line = nextLine(lines);
+        }
+        PlaceholderTemplate responseStatus = null;
+        if (line != null) {
+            responseStatus = PlaceholderTemplate.compile(line.split(" ")[1]);
+            line = nextLine(lines);
+        }
+        List<Header> responseHeaders = new ArrayList<>();
+        line = headers(lines, line, responseHeaders);
+        List<PlaceholderTemplate> responseBody = new ArrayList<>();
+        while (line != null && !isBlank(line)) {
+            responseBody.add(PlaceholderTemplate.compile(line));
+            line = nextLine(lines);
+        }
+        return new ScenarioTemplate(directives, requestMethod, requestPath, requestHost, requestHeaders, requestBody,
+                responseStatus, responseHeaders, responseBody);
+    }
+
+    /**
+     * Collects header lines up to a blank line.
+     *
+     * @return the line following the headers and the blank line
+     */
+    private static String headers(ScenarioLines lines, String line, List<Header> headers) {
+        while (line != null && !isBlank(line)) {
+            headers.add(new Header(PlaceholderTemplate.compile(substringBefore(line, ": ").trim()),
+                    PlaceholderTemplate.compile(substringAfter(line, ": ").trim())));
+            line = nextLine(lines);
+        }
+        return line == null ? null : nextLine(lines);
+    }
+
+    private static String nextLine(Iterator<String> lines) {
+        return lines.hasNext() ? lines.next() : null;
+    }
+
+    /**
+     * Creates the call with placeholders substituted from the given context, see {@link PlaceholderTemplate}.
+     */
+    MockServerCall bind(Map<String, Object> context) {
+        MockServerCall call = new MockServerCall();
+        StringBuilder buffer = new StringBuilder();
+        for (PlaceholderTemplate directive : directives) {
+            ScenarioDirectives.apply(bind(directive, context, buffer), call);
+        }
+        if (requestMethod != null) {
+            call.setRequestMethod(HttpMethod.resolve(bind(requestMethod, context, buffer)));
+            call.setRequestPath(bind(requestPath, context, buffer));
+        }
+        if (requestHost != null) {
+            call.setRequestHost(bind(requestHost, context, buffer));
+        }
+        bindHeaders(requestHeaders, call.getRequestHeaders(), context, buffer);
+        if (!requestBody.isEmpty()) {
+            call.setRequestBody(bindBody(requestBody, context, buffer));
+        }
+        if (responseStatus != null) {
+            call.setResponseStatus(HttpStatus.valueOf(Integer.parseInt(bind(responseStatus, context, buffer))));
+        }
+        bindHeaders(responseHeaders, call.getResponseHeaders(), context, buffer);
+        if (!responseBody.isEmpty()) {
+            String body = bindBody(responseBody, context, buffer);
+            if (call.getResponseBodyContent() != null) {
+                throw new IllegalStateException("Response body is streamed, lines cannot be appended to it: "
+                        + substringBefore(body, "\n"));
+            }
+            call.setResponseBody(body);
+        }
+        return call;
+    }
+
+    private static String bind(PlaceholderTemplate template, Map<String, Object> context, StringBuilder buffer) {
+        if (!template.hasPlaceholders()) {
+            return template.bind(context);
+        }
+        buffer.setLength(0);
+        return template.bind(context, buffer).toString();
+    }
+
+    private static void bindHeaders(List<Header> headers,
+                                    HttpHeaders target,
+                                    Map<String, Object> context,
+                                    StringBuilder buffer) {
+        for (Header header : headers) {
+            target.add(bind(header.name, context, buffer), bind(header.value, context, buffer));
+        }
+    }
+
+    private static String bindBody(List<PlaceholderTemplate> lines, Map<String, Object> context, StringBuilder buffer) {
+        buffer.setLength(0);
+        for (PlaceholderTemplate line : lines) {
+            if (buffer.length() > 0) {
+                buffer.append('\n');
+            }
+            line.bind(context, buffer);
+        }
+        return buffer.toString();
+    }
+
+    /**
+     * Writes the template in {@link ScenarioBinaryFormat}.
+     */
+    void writeTo(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(ScenarioBinaryFormat.MAGIC);
+        data.writeInt(ScenarioBinaryFormat.VERSION);
+        writeTemplates(data, directives);
+        writeTemplate(data, requestMethod);
+        writeTemplate(data, requestPath);
+        writeTemplate(data, requestHost);
+        writeHeaders(data, requestHeaders);
+        writeTemplates(data, requestBody);
+        writeTemplate(data, responseStatus);
+        writeHeaders(data, responseHeaders);
+        writeTemplates(data, responseBody);
+        data.flush();
+    }
+
+    /**
+     * Reads the template written by {@link #writeTo(OutputStream)} from its bytes.
+     */
+    static ScenarioTemplate read(byte[] compiled) throws IOException {
+        DataInputStream data = new DataInputStream(new ByteArrayInputStream(compiled));
+        if (!ScenarioBinaryFormat.isSupported(data)) {
+            throw new IOException("Unsupported compiled scenario format");
+        }
+        return new ScenarioTemplate(readTemplates(data), readTemplate(data), readTemplate(data), readTemplate(data),
+                readHeaders(data), readTemplates(data), readTemplate(data), readHeaders(data), readTemplates(data));
+    }
+
+    private static void writeTemplate(DataOutput out, PlaceholderTemplate template) throws IOException {
+        out.writeBoolean(template != null);
+        if (template != null) {
+            template.writeTo(out);
+        }
+    }
+
+    private static PlaceholderTemplate readTemplate(DataInput in) throws IOException {
+        return in.readBoolean() ? PlaceholderTemplate.readFrom(in) : null;
+    }
+
+    private static void writeTemplates(DataOutput out, List<PlaceholderTemplate> templates) throws IOException {
+        out.writeInt(templates.size());
+        for (PlaceholderTemplate template : templates) {
+            template.writeTo(out);
+        }
+    }
+
+    private static List<PlaceholderTemplate> readTemplates(DataInput in) throws IOException {
+        int size = in.readInt();
+        if (size == 0) {
+            return Collections.emptyList();
+        }
+        List<PlaceholderTemplate> templates = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            templates.add(PlaceholderTemplate.readFrom(in));
+        }
+        return templates;
+    }
+
+    private static void writeHeaders(DataOutput out, List<Header> headers) throws IOException {
+        out.writeInt(headers.size());
+        for (Header header : headers) {
+            header.name.writeTo(out);
+            header.value.writeTo(out);
+        }
+    }
+
+    private static List<Header> readHeaders(DataInput in) throws IOException {
+        int size = in.readInt();
+        List<Header> headers = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            headers.add(new Header(PlaceholderTemplate.readFrom(in), PlaceholderTemplate.readFrom(in)));
+        }
+        return headers;
+    }
+
+    /**
+     * Header line split into name and value.
+     */
+    private static final class Header {
+
+        private final PlaceholderTemplate name;
+        private final PlaceholderTemplate value;
+
+        private Header(PlaceholderTemplate name, PlaceholderTemplate value) {
+            this.name = name;
+            this.value = value;
+        }
+    }
+}
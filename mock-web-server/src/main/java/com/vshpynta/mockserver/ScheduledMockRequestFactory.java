@@ -0,0 +1,75 @@
+package com.vshpynta.mockserver;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.AsyncClientHttpRequest;
+import org.springframework.http.client.AsyncClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockAsyncClientHttpRequest;
+import org.springframework.test.web.client.RequestExpectationManager;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.SettableListenableFuture;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Async request factory for {@code AsyncRestTemplate} bound to a mock server. Unlike the one of
+ * {@code MockRestServiceServer}, which completes the future in the calling thread, a {@link DelayedResponse}
+ * is completed by a shared scheduler once its delay elapses, so delayed responses never block the caller.
+ * Requests are still validated against the expectations in the calling thread.
+ */
+@RequiredArgsConstructor
+final class ScheduledMockRequestFactory implements AsyncClientHttpRequestFactory {
+
+    private static final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(
+            Math.max(2, Runtime.getRuntime().availableProcessors()), new DaemonThreadFactory());
+
+    private final RequestExpectationManager expectationManager;
+
+    @Override
+    public AsyncClientHttpRequest createAsyncRequest(URI uri, HttpMethod httpMethod) {
+        return new MockAsyncClientHttpRequest(httpMethod, uri) {
+
+            @Override
+            public ListenableFuture<ClientHttpResponse> executeAsync() throws IOException {
+                ClientHttpResponse response = expectationManager.validateRequest(this);
+                setResponse(response);
+                SettableListenableFuture<ClientHttpResponse> future = new SettableListenableFuture<>();
+                if (!(response instanceof DelayedResponse)) {
+                    future.set(response);
+                } else {
+                    DelayedResponse delayed = (DelayedResponse) response;
+                    scheduler.schedule(() -> complete(future, delayed), delayed.getDelayMillis(), MILLISECONDS);
+                }
+                return future;
+            }
+        };
+    }
+
+    private static void complete(SettableListenableFuture<ClientHttpResponse> future, DelayedResponse response) {
+        if (response.getFault() != null) {
+            future.setException(response.getFault());
+        } else {
+            future.set(response.getResponse());
+        }
+    }
+
+    private static final class DaemonThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threads = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "mock-server-responses-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
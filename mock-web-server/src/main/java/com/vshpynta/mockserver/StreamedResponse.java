@@ -0,0 +1,27 @@
+package com.vshpynta.mockserver;
+
+import com.github.tomakehurst.wiremock.common.InputStreamSource;
+import com.github.tomakehurst.wiremock.http.Response;
+
+/**
+ * WireMock response whose body is only streamed to the client. WireMock logs every response it serves, reading
+ * {@link #getBody()} into memory whether the request journal is enabled or not, so the body of this response
+ * is reported as absent: the journal keeps status and headers only.
+ */
+final class StreamedResponse extends Response {
+
+    StreamedResponse(Response response, InputStreamSource body) {
+        super(response.getStatus(), response.getStatusMessage(), body, response.getHeaders(), response.wasConfigured(),
+                response.getFault(), response.getInitialDelay(), response.getChunkedDribbleDelay(), response.isFromProxy());
+    }
+
+    @Override
+    public byte[] getBody() {
+        return null;
+    }
+
+    @Override
+    public String getBodyAsString() {
+        return null;
+    }
+}
@@ -0,0 +1,109 @@
+package com.vshpynta.mockserver;
+
+import com.github.tomakehurst.wiremock.common.FileSource;
+import com.github.tomakehurst.wiremock.extension.Parameters;
+import com.github.tomakehurst.wiremock.extension.ResponseTransformer;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.Response;
+import lombok.SneakyThrows;
+
+import java.io.InputStream;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Serves stub response bodies from a {@link ResourceBody}, a {@link ScenarioFileBody} or a {@link GeneratedBody}:
+ * the body is opened for every
+ * request and copied to the client while it is read, without a content length, so it is sent with chunked transfer
+ * encoding. The request journal does not keep such bodies, see {@link StreamedResponse}.
+ * A throttled body is delivered by {@link ThrottledInputStream} here rather than by WireMock's chunked dribble delay,
+ * which reads the whole body into memory; Jetty buffers the output, so the client may see bigger bursts.
+ * Is registered in servers created by {@link WireMockServerCreator}.
+ */
+public class StreamedResponseBodyTransformer extends ResponseTransformer {
+
+    public static final String NAME = "streamed-response-body";
+
+    static final String BODY_URL_PARAMETER = "bodyUrl";
+    static final String BODY_LINE_PARAMETER = "bodyLine";
+    static final String BODY_CONTEXT_PARAMETER = "bodyContext";
+    static final String GENERATED_FORMAT_PARAMETER = "generatedFormat";
+    static final String GENERATED_COUNT_PARAMETER = "generatedCount";
+    static final String GENERATED_RECORD_PARAMETER = "generatedRecord";
+    static final String CHUNK_SIZE_PARAMETER = "chunkSize";
+    static final String THROTTLE_SIZE_PARAMETER = "throttleSize";
+    static final String THROTTLE_CHUNKS_PARAMETER = "throttleChunks";
+    static final String THROTTLE_MILLIS_PARAMETER = "throttleMillis";
+
+    @Override
+    public Response transform(Request request, Response response, FileSource files, Parameters parameters) {
+        MockServerCallBody.Source source = source(parameters);
+        Integer chunkSize = parameters.containsKey(CHUNK_SIZE_PARAMETER) ? parameters.getInt(CHUNK_SIZE_PARAMETER) : null;
+        if (parameters.containsKey(THROTTLE_CHUNKS_PARAMETER)) {
+            long size = ((Number) parameters.get(THROTTLE_SIZE_PARAMETER)).longValue();
+            int chunks = parameters.getInt(THROTTLE_CHUNKS_PARAMETER);
+            long deliveryMillis = ((Number) parameters.get(THROTTLE_MILLIS_PARAMETER)).longValue();
+            return new StreamedResponse(response,
+                    () -> new ThrottledInputStream(open(source, null), size, chunks, deliveryMillis));
+        }
+        return new StreamedResponse(response, () -> open(source, chunkSize));
+    }
+
+    /**
+     * Parameters which rebuild the source in {@link #transform}, {@code null} if the source cannot be streamed.
+     */
+    static Parameters parameters(MockServerCallBody.Source source, Integer chunkSize) {
+        Parameters parameters = new Parameters();
+        if (source instanceof ResourceBody) {
+            parameters.put(BODY_URL_PARAMETER, ((ResourceBody) source).getResource().toString());
+        } else if (source instanceof ScenarioFileBody) {
+            ScenarioFileBody fileBody = (ScenarioFileBody) source;
+            parameters.put(BODY_URL_PARAMETER, fileBody.getResource().toString());
+            parameters.put(BODY_LINE_PARAMETER, fileBody.getBodyLineNumber());
+            Map<String, String> context = new HashMap<>();
+            fileBody.getContext().forEach((name, value) -> context.put(name, value == null ? null : value.toString()));
+            parameters.put(BODY_CONTEXT_PARAMETER, context);
+        } else if (source instanceof GeneratedBody) {
+            GeneratedBody generatedBody = (GeneratedBody) source;
+            parameters.put(GENERATED_FORMAT_PARAMETER, generatedBody.getFormat().name());
+            parameters.put(GENERATED_COUNT_PARAMETER, generatedBody.getCount());
+            parameters.put(GENERATED_RECORD_PARAMETER, generatedBody.getRecord());
+        } else {
+            return null;
+        }
+        if (chunkSize != null) {
+            parameters.put(CHUNK_SIZE_PARAMETER, chunkSize);
+        }
+        return parameters;
+    }
+
+    @SneakyThrows
+    @SuppressWarnings("unchecked")
+    private static MockServerCallBody.Source source(Parameters parameters) {
+        if (parameters.containsKey(BODY_LINE_PARAMETER)) {
+            return new ScenarioFileBody(new URL(parameters.getString(BODY_URL_PARAMETER)),
+                    parameters.getInt(BODY_LINE_PARAMETER), (Map<String, Object>) parameters.get(BODY_CONTEXT_PARAMETER));
+        }
+        if (parameters.containsKey(BODY_URL_PARAMETER)) {
+            return new ResourceBody(new URL(parameters.getString(BODY_URL_PARAMETER)));
+        }
+        return new GeneratedBody(GeneratedBody.Format.valueOf(parameters.getString(GENERATED_FORMAT_PARAMETER)),
+                parameters.getInt(GENERATED_COUNT_PARAMETER), parameters.getString(GENERATED_RECORD_PARAMETER));
+    }
+
+    @SneakyThrows
+    private static InputStream open(MockServerCallBody.Source source, Integer chunkSize) {
+        return ChunkedInputStream.of(source.open(), chunkSize);
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean applyGlobally() {
+        return false;
+    }
+}
@@ -0,0 +1,27 @@
+package com.vshpynta.mockserver;
+
+import lombok.Value;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Timings of a bulk stub registration, see {@link WireMockServerConfigurer#stubRequestsInParallel}.
+ */
+@Value
+public class StubRegistrationReport {
+
+    private List<Entry> entries;
+    private Duration parseTime;
+    private Duration registrationTime;
+
+    /**
+     * Timings of a single scenario file: parsing includes building of its stub mapping.
+     */
+    @Value
+    public static class Entry {
+        private String configFile;
+        private Duration parseTime;
+        private Duration registrationTime;
+    }
+}
@@ -0,0 +1,102 @@
+package com.vshpynta.mockserver;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.InputStream;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Delivers a body of known size in the given number of chunks spread evenly over the given time,
+ * like a slow server does. The body is read from the wrapped stream chunk by chunk, never as a whole.
+ */
+final class ThrottledInputStream extends FilterInputStream {
+
+    private final long size;
+    private final long chunkSize;
+    private final long pauseNanos;
+    private long position;
+    private long chunkEnd;
+
+    ThrottledInputStream(byte[] body, int chunks, long deliveryMillis) {
+        this(new ByteArrayInputStream(body), body.length, chunks, deliveryMillis);
+    }
+
+    ThrottledInputStream(InputStream body, long size, int chunks, long deliveryMillis) {
+        super(body);
+        int chunkCount = Math.max(1, chunks);
+        this.size = size;
+        this.chunkSize = Math.max(1, (size + chunkCount - 1) / chunkCount);
+        this.pauseNanos = chunkCount > 1 ? MILLISECONDS.toNanos(deliveryMillis) / (chunkCount - 1) : 0;
+        this.chunkEnd = Math.min(chunkSize, size);
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!nextChunk()) {
+            return -1;
+        }
+        int read = in.read();
+        if (read >= 0) {
+            position++;
+        }
+        return read;
+    }
+
+    @Override
+    public int read(byte[] target, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!nextChunk()) {
+            return -1;
+        }
+        int read = in.read(target, offset, (int) Math.min(length, chunkEnd - position));
+        if (read > 0) {
+            position += read;
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long count) throws IOException {
+        byte[] skipped = new byte[(int) Math.min(count, 8192)];
+        int read = read(skipped, 0, skipped.length);
+        return Math.max(read, 0);
+    }
+
+    @Override
+    public int available() {
+        return 0;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    /**
+     * Waits for the next chunk once the current one is read.
+     *
+     * @return whether there is anything left to read
+     */
+    private boolean nextChunk() throws IOException {
+        if (position < chunkEnd) {
+            return true;
+        }
+        if (position >= size) {
+            return false;
+        }
+        try {
+            NANOSECONDS.sleep(pauseNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the next chunk");
+        }
+        chunkEnd = Math.min(chunkEnd + chunkSize, size);
+        return true;
+    }
+}
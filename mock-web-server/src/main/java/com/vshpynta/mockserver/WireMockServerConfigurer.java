@@ -3,27 +3,39 @@ package com.vshpynta.mockserver;
 import com.github.tomakehurst.wiremock.WireMockServer;
 import com.github.tomakehurst.wiremock.client.MappingBuilder;
 import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+import com.github.tomakehurst.wiremock.extension.Parameters;
+import com.github.tomakehurst.wiremock.extension.ResponseTransformer;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
 import com.google.common.collect.ImmutableMap;
 import lombok.SneakyThrows;
+import lombok.Value;
 import lombok.experimental.UtilityClass;
+import org.skyscreamer.jsonassert.JSONCompareMode;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.any;
 import static com.github.tomakehurst.wiremock.client.WireMock.containing;
 import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
-import static com.github.tomakehurst.wiremock.client.WireMock.equalToJson;
-import static com.github.tomakehurst.wiremock.client.WireMock.matching;
 import static com.github.tomakehurst.wiremock.client.WireMock.request;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
+import static com.vshpynta.mockserver.FormDataPattern.containingFormParameters;
+import static com.vshpynta.mockserver.JsonBodyPattern.matchingJson;
 import static java.lang.String.format;
 import static java.util.Arrays.stream;
 import static java.util.Collections.emptyMap;
+import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
-import static org.apache.commons.lang3.StringUtils.EMPTY;
 import static org.apache.commons.lang3.StringUtils.isBlank;
 import static org.apache.commons.lang3.StringUtils.substringAfter;
 import static org.apache.commons.lang3.StringUtils.substringBefore;
@@ -34,8 +46,7 @@ import static org.springframework.http.MediaType.APPLICATION_JSON_UTF8;
 @UtilityClass
 public class WireMockServerConfigurer {
 
-    private static final String FORM_MATCHING_PARAMETER_PATTERN = ".*(?=.*%s=%s)";
-    private static final String FORM_MATCHING_END_PATTERN = ".*";
+    private static final int IGNORED_PRIORITY = 1;
 
     public static void stubRequests(WireMockServer wireMockServer,
                                     RequestStubConfig... requestStubConfigs) {
@@ -68,14 +79,108 @@ public class WireMockServerConfigurer {
 
     }
 
+    /**
+     * Registers stubs whose URL paths are prefixed with the given path, so they do not clash with stubs
+     * registered by other tests on the same server.
+     *
+     * @return registered stub mappings, which can be removed selectively
+     */
+    static List<StubMapping> stubRequestsUnderPath(WireMockServer wireMockServer,
+                                                   String pathPrefix,
+                                                   List<RequestStubConfig> requestStubConfigs) {
+        return requestStubConfigs.stream()
+                .map(requestStubConfig -> wireMockServer.stubFor(buildMapping(wireMockServer, requestStubConfig, pathPrefix)))
+                .collect(toList());
+    }
+
+    /**
+     * Registers stubs answering requests to the ignored paths under the given prefix with an empty {@code 200 OK}
+     * response. They have the highest priority, so WireMock stops at them before matching scenario stubs.
+     *
+     * @return registered stub mappings, which can be removed selectively
+     */
+    static List<StubMapping> stubIgnoredUnderPath(WireMockServer wireMockServer,
+                                                  String pathPrefix,
+                                                  IgnoredPaths ignoredPaths) {
+        return ignoredPaths.toRegexes(pathPrefix).stream()
+                .map(regex -> wireMockServer.stubFor(any(urlPathMatching(regex))
+                        .atPriority(IGNORED_PRIORITY)
+                        .willReturn(aResponse().withStatus(HttpStatus.OK.value()))))
+                .collect(toList());
+    }
+
+    /**
+     * Removes the stub if it is still registered, WireMock fails removing a stateful scenario stub once
+     * the server has been reset.
+     */
+    static void removeStub(WireMockServer wireMockServer, StubMapping stubMapping) {
+        if (wireMockServer.getStubMapping(stubMapping.getId()).isPresent()) {
+            wireMockServer.removeStubMapping(stubMapping);
+        }
+    }
+
+    /**
+     * Parses scenario files and builds their stub mappings in parallel on the common fork-join pool,
+     * then registers the mappings one by one, see {@link #stubRequestsInParallel(WireMockServer, ForkJoinPool, List)}.
+     */
+    public static StubRegistrationReport stubRequestsInParallel(WireMockServer wireMockServer,
+                                                                List<RequestStubConfig> requestStubConfigs) {
+        return stubRequestsInParallel(wireMockServer, ForkJoinPool.commonPool(), requestStubConfigs);
+    }
+
+    /**
+     * Parses scenario files and builds their stub mappings in parallel on the given fork-join pool,
+     * then registers the mappings one by one on the calling thread, so the report has the registration time
+     * of every stub. A failure of parsing is rethrown as is.
+     */
     @SneakyThrows
+    public static StubRegistrationReport stubRequestsInParallel(WireMockServer wireMockServer,
+                                                                ForkJoinPool pool,
+                                                                List<RequestStubConfig> requestStubConfigs) {
+        long parseStart = System.nanoTime();
+        List<PreparedStub> preparedStubs;
+        try {
+            preparedStubs = pool.submit(() -> requestStubConfigs.parallelStream()
+                    .map(requestStubConfig -> prepareStub(wireMockServer, requestStubConfig))
+                    .collect(toList()))
+                    .get();
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        }
+        long registrationStart = System.nanoTime();
+
+        List<StubRegistrationReport.Entry> entries = new ArrayList<>(preparedStubs.size());
+        for (PreparedStub preparedStub : preparedStubs) {
+            long start = System.nanoTime();
+            wireMockServer.addStubMapping(preparedStub.getStubMapping());
+            entries.add(new StubRegistrationReport.Entry(preparedStub.getConfigFile(),
+                    preparedStub.getParseTime(), Duration.ofNanos(System.nanoTime() - start)));
+        }
+        return new StubRegistrationReport(entries,
+                Duration.ofNanos(registrationStart - parseStart),
+                Duration.ofNanos(System.nanoTime() - registrationStart));
+    }
+
+    private static PreparedStub prepareStub(WireMockServer wireMockServer, RequestStubConfig requestStubConfig) {
+        long start = System.nanoTime();
+        StubMapping stubMapping = buildMapping(wireMockServer, requestStubConfig, "").build();
+        return new PreparedStub(requestStubConfig.getConfigFile(), stubMapping, Duration.ofNanos(System.nanoTime() - start));
+    }
+
     private static void stubRequest(WireMockServer wireMockServer,
                                     RequestStubConfig requestStubConfig) {
+        wireMockServer.stubFor(buildMapping(wireMockServer, requestStubConfig, ""));
+    }
+
+    @SneakyThrows
+    private static MappingBuilder buildMapping(WireMockServer wireMockServer,
+                                               RequestStubConfig requestStubConfig,
+                                               String pathPrefix) {
         MockServerCall expectedCall = getMockServerCall(requestStubConfig.getConfigFile(),
                 requestStubConfig.getPlaceholders());
 
         MappingBuilder mappingBuilder = request(expectedCall.getRequestMethod().name(),
-                urlPathEqualTo(expectedCall.getUri().getPath()));
+                urlPathEqualTo(pathPrefix + expectedCall.getUri().getPath()));
 
         parseUriQuery(expectedCall.getUri().getQuery())
                 .forEach((key, value) -> mappingBuilder.withQueryParam(key, equalTo(value)));
@@ -85,16 +190,92 @@ public class WireMockServerConfigurer {
 
         validateRequestBody(expectedCall, mappingBuilder);
 
+        ScenarioStep step = expectedCall.getScenarioStep();
+        if (step != null) {
+            mappingBuilder.inScenario(pathPrefix + step.getScenario())
+                    .whenScenarioStateIs(step.getRequiredState())
+                    .willSetStateTo(step.getNextState());
+        }
+
         ResponseDefinitionBuilder response = aResponse();
         response.withStatus(expectedCall.getResponseStatus().value());
         expectedCall.getResponseHeaders()
                 .forEach((key, value) -> response.withHeader(key, value.toArray(new String[0])));
-        response.withBody(expectedCall.getResponseBody());
+        withResponseBody(wireMockServer, response, expectedCall.getResponseBodyContent(),
+                requestStubConfig.getResponseBodySource(), expectedCall.getResponseProfile().getChunkSize());
+        withResponseProfile(response, expectedCall.getResponseProfile(), expectedCall.getResponseBodyContent());
 
+        return mappingBuilder.willReturn(response);
+    }
 
-        mappingBuilder.willReturn(response);
+    private static void withResponseBody(WireMockServer wireMockServer,
+                                         ResponseDefinitionBuilder response,
+                                         MockServerCallBody body,
+                                         ResponseBodySource responseBodySource,
+                                         Integer chunkSize) {
+        if (body == null) {
+            return;
+        }
+        if (body.isStreamed()) {
+            Parameters streamedBody = StreamedResponseBodyTransformer.parameters(body.getSource(), chunkSize);
+            if (streamedBody == null) {
+                throw new IllegalStateException(format("Streamed response body %s cannot be served by %s",
+                        body.getSource().getClass().getName(), StreamedResponseBodyTransformer.class.getSimpleName()));
+            }
+            requireExtension(wireMockServer, StreamedResponseBodyTransformer.NAME,
+                    StreamedResponseBodyTransformer.class, "Streamed");
+            response.withTransformers(StreamedResponseBodyTransformer.NAME);
+            streamedBody.forEach(response::withTransformerParameter);
+            return;
+        }
+        if (ResponseBodySource.INLINE.equals(responseBodySource)) {
+            response.withBody(body.bytes());
+            return;
+        }
+        requireExtension(wireMockServer, FileResponseBodyTransformer.NAME,
+                FileResponseBodyTransformer.class, responseBodySource);
+        response.withTransformers(FileResponseBodyTransformer.NAME)
+                .withTransformerParameter(FileResponseBodyTransformer.BODY_FILE_PARAMETER,
+                        ResponseBodyFiles.store(body).toString())
+                .withTransformerParameter(FileResponseBodyTransformer.MAPPED_PARAMETER,
+                        ResponseBodySource.MAPPED.equals(responseBodySource));
+    }
 
-        wireMockServer.stubFor(mappingBuilder);
+    private static void requireExtension(WireMockServer wireMockServer,
+                                         String name,
+                                         Class<? extends ResponseTransformer> extension,
+                                         Object responseBody) {
+        if (!wireMockServer.getOptions().extensionsOfType(ResponseTransformer.class).containsKey(name)) {
+            throw new IllegalStateException(format("%s response body requires %s extension registered in WireMock server",
+                    responseBody, extension.getSimpleName()));
+        }
+    }
+
+    private static void withResponseProfile(ResponseDefinitionBuilder response,
+                                            ResponseProfile profile,
+                                            MockServerCallBody body) {
+        if (profile.getFixedDelayMillis() != null) {
+            response.withFixedDelay(profile.getFixedDelayMillis());
+        }
+        if (profile.getDelayDistribution() != null) {
+            response.withRandomDelay(profile.getDelayDistribution());
+        }
+        if (profile.isThrottled()) {
+            long bodySize = body == null ? 0 : body.length();
+            if (body != null && body.isStreamed()) {
+                // WireMock reads a dribbled body into memory, so streamed bodies are throttled by the transformer
+                response.withTransformerParameter(StreamedResponseBodyTransformer.THROTTLE_SIZE_PARAMETER, bodySize)
+                        .withTransformerParameter(StreamedResponseBodyTransformer.THROTTLE_CHUNKS_PARAMETER,
+                                profile.chunks(bodySize))
+                        .withTransformerParameter(StreamedResponseBodyTransformer.THROTTLE_MILLIS_PARAMETER,
+                                profile.deliveryMillis(bodySize));
+            } else {
+                response.withChunkedDribbleDelay(profile.chunks(bodySize), profile.deliveryMillis(bodySize));
+            }
+        }
+        if (profile.getFault() != null) {
+            response.withFault(profile.getFault());
+        }
     }
 
     private static void validateRequestBody(MockServerCall expectedCall, MappingBuilder mappingBuilder) {
@@ -105,28 +286,14 @@ public class WireMockServerConfigurer {
         MediaType contentType = expectedCall.getRequestHeaders().getContentType();
 
         if (APPLICATION_FORM_URLENCODED.equals(contentType)) {
-            validateFormDataBody(expectedCall.getRequestBody(), mappingBuilder);
+            mappingBuilder.withRequestBody(containingFormParameters(expectedCall.getRequestBody()));
         } else if (APPLICATION_JSON.equals(contentType) || APPLICATION_JSON_UTF8.equals(contentType)) {
-            mappingBuilder.withRequestBody(equalToJson(expectedCall.getRequestBody()));
+            mappingBuilder.withRequestBody(matchingJson(expectedCall.getRequestBody(), JSONCompareMode.STRICT));
         } else {
             mappingBuilder.withRequestBody(equalTo(expectedCall.getRequestBody()));
         }
     }
 
-    private void validateFormDataBody(String expectedContent, MappingBuilder mappingBuilder) {
-        if (isBlank(expectedContent)) {
-            return;
-        }
-        String[] bodyParameters = expectedContent.replaceAll("\\r|\\n", EMPTY).split("&");
-        StringBuilder bodyMatchingPattern = new StringBuilder();
-        Arrays.stream(bodyParameters)
-                .map(parameterKeyValueStr -> parameterKeyValueStr.split("="))
-                .forEach(parameterKeyValue -> bodyMatchingPattern.append(format(FORM_MATCHING_PARAMETER_PATTERN, parameterKeyValue[0], parameterKeyValue[1])));
-        bodyMatchingPattern.append(FORM_MATCHING_END_PATTERN);
-
-        mappingBuilder.withRequestBody(matching(bodyMatchingPattern.toString()));
-    }
-
     private static void validateAllHeaderValues(MappingBuilder mappingBuilder, String headerName, List<String> headerValues) {
         headerValues.forEach(headerValue -> mappingBuilder.withHeader(headerName, containing(headerValue)));
     }
@@ -142,4 +309,11 @@ public class WireMockServerConfigurer {
         }
         return stream(query.split("&")).collect(toMap(s -> substringBefore(s, "="), s -> substringAfter(s, "=")));
     }
+
+    @Value
+    private static class PreparedStub {
+        private String configFile;
+        private StubMapping stubMapping;
+        private Duration parseTime;
+    }
 }
@@ -3,41 +3,84 @@ package com.vshpynta.mockserver;
 
 import com.github.tomakehurst.wiremock.WireMockServer;
 import com.github.tomakehurst.wiremock.common.ConsoleNotifier;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import lombok.SneakyThrows;
 import lombok.experimental.UtilityClass;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
 import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
-import static com.jayway.restassured.RestAssured.when;
 import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
-import static org.awaitility.Awaitility.await;
 
 @Slf4j
 @UtilityClass
 public class WireMockServerCreator {
 
+    private static final int PROBE_CONNECT_TIMEOUT_MILLIS = 100;
+    private static final long PROBE_MAX_BACKOFF_MILLIS = 50;
+
     public static WireMockServer createWireMockServer(int serverStartupInitialTimeout) {
-        WireMockServer wireMockServer = new WireMockServer(wireMockConfig()
-                .dynamicPort()
-                .notifier(new ConsoleNotifier(true)));
+        return createWireMockServer(defaultWireMockConfig(), serverStartupInitialTimeout);
+    }
+
+    public static WireMockServer createWireMockServer(WireMockConfiguration configuration,
+                                                      int serverStartupInitialTimeout) {
+        long start = System.nanoTime();
+        WireMockServer wireMockServer = new WireMockServer(configuration);
         wireMockServer.start();
-        waitingForServerToStart(wireMockServer, serverStartupInitialTimeout);
+        waitingForServerToStart(wireMockServer, start + SECONDS.toNanos(serverStartupInitialTimeout));
+        long startupNanos = System.nanoTime() - start;
+        WireMockServerStartupMetrics.record(startupNanos);
+        log.debug("WireMock server started on port {} in {} ms", wireMockServer.port(), NANOSECONDS.toMillis(startupNanos));
         return wireMockServer;
     }
 
-    private static void waitingForServerToStart(WireMockServer wireMockServer,
-                                                int serviceStartupInitialTimeout) {
-        await().atMost(serviceStartupInitialTimeout, SECONDS)
-                .until(() -> isServiceStubAlreadyRunning(wireMockServer));
+    /**
+     * Configuration used by {@link #createWireMockServer(int)}: dynamic port, verbose console notifier
+     * and {@link FileResponseBodyTransformer}, {@link StreamedResponseBodyTransformer} and {@link ScenarioMetricsAction}
+     * extensions.
+     */
+    public static WireMockConfiguration defaultWireMockConfig() {
+        return wireMockConfig()
+                .dynamicPort()
+                .notifier(new ConsoleNotifier(true))
+                .extensions(new FileResponseBodyTransformer(), new StreamedResponseBodyTransformer(),
+                        new ScenarioMetricsAction());
+    }
+
+    /**
+     * {@link WireMockServer#start()} returns once Jetty is started, so the connector normally accepts connections
+     * right away; the socket probe only covers connectors which are still being opened.
+     */
+    @SneakyThrows
+    private static void waitingForServerToStart(WireMockServer wireMockServer, long deadlineNanos) {
+        long backoffMillis = 1;
+        while (!isServiceStubAlreadyRunning(wireMockServer)) {
+            if (System.nanoTime() - deadlineNanos >= 0) {
+                wireMockServer.stop();
+                throw new IllegalStateException(format("WireMock server on port %s has not started in time",
+                        wireMockServer.port()));
+            }
+            MILLISECONDS.sleep(backoffMillis);
+            backoffMillis = Math.min(backoffMillis << 1, PROBE_MAX_BACKOFF_MILLIS);
+        }
     }
 
     private static boolean isServiceStubAlreadyRunning(WireMockServer wireMockServer) {
-        try {
-            when().get(format("http://localhost:%s/__admin", wireMockServer.port()))
-                    .then().statusCode(200);
+        if (!wireMockServer.isRunning()) {
+            return false;
+        }
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress("localhost", wireMockServer.port()), PROBE_CONNECT_TIMEOUT_MILLIS);
             return true;
-        } catch (AssertionError error) {
-            log.warn("Starting wireMockServer.. Error occurred: {}", error.getMessage());
+        } catch (IOException e) {
+            log.warn("Starting wireMockServer.. Error occurred: {}", e.getMessage());
             return false;
         }
     }
@@ -0,0 +1,110 @@
+package com.vshpynta.mockserver;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static com.vshpynta.mockserver.WireMockServerConfigurer.removeStub;
+import static com.vshpynta.mockserver.WireMockServerConfigurer.stubIgnoredUnderPath;
+import static com.vshpynta.mockserver.WireMockServerConfigurer.stubRequestsUnderPath;
+import static java.lang.String.format;
+import static java.util.Arrays.asList;
+
+/**
+ * Server leased from {@link WireMockServerPool}. Stubs of a lease are registered under its own path prefix, so tests
+ * holding different leases of the same server do not see each other's stubs; clients should call the server
+ * via {@link #baseUrl()}. Closing the lease removes only its stubs and returns it to the pool.
+ */
+public final class WireMockServerLease implements AutoCloseable {
+
+    private final WireMockServerPool pool;
+    @Getter
+    private final WireMockServer wireMockServer;
+    @Getter
+    private final String pathPrefix;
+    private final Queue<StubMapping> stubMappings = new ConcurrentLinkedQueue<>();
+    private volatile boolean closed;
+
+    WireMockServerLease(WireMockServerPool pool, WireMockServer wireMockServer, String pathPrefix) {
+        this.pool = pool;
+        this.wireMockServer = wireMockServer;
+        this.pathPrefix = pathPrefix;
+    }
+
+    /**
+     * Base URL of the lease namespace, e.g. {@code http://localhost:8080/lease-1}.
+     */
+    public String baseUrl() {
+        return format("http://localhost:%s%s", wireMockServer.port(), pathPrefix);
+    }
+
+    public String url(String path) {
+        return baseUrl() + path;
+    }
+
+    public List<StubMapping> stubRequests(RequestStubConfig... requestStubConfigs) {
+        return stubRequests(asList(requestStubConfigs));
+    }
+
+    public List<StubMapping> stubRequests(List<RequestStubConfig> requestStubConfigs) {
+        checkNotClosed();
+        List<StubMapping> registered = stubRequestsUnderPath(wireMockServer, pathPrefix, requestStubConfigs);
+        stubMappings.addAll(registered);
+        return registered;
+    }
+
+    /**
+     * Registers stubs answering requests to the ignored paths in the namespace of this lease.
+     */
+    List<StubMapping> stubIgnored(IgnoredPaths ignoredPaths) {
+        checkNotClosed();
+        List<StubMapping> registered = stubIgnoredUnderPath(wireMockServer, pathPrefix, ignoredPaths);
+        stubMappings.addAll(registered);
+        return registered;
+    }
+
+    /**
+     * Removes the given stubs of this lease, other stubs of the server are kept.
+     */
+    public void removeStubs(Collection<StubMapping> stubs) {
+        for (StubMapping stub : stubs) {
+            if (stubMappings.remove(stub)) {
+                removeStub(wireMockServer, stub);
+            }
+        }
+    }
+
+    /**
+     * Removes all stubs registered through this lease.
+     */
+    public void resetStubs() {
+        StubMapping stub;
+        while ((stub = stubMappings.poll()) != null) {
+            removeStub(wireMockServer, stub);
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            resetStubs();
+            pool.release(this);
+        }
+    }
+
+    private void checkNotClosed() {
+        if (closed) {
+            throw new IllegalStateException(format("Lease %s is already closed", pathPrefix));
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.vshpynta.mockserver;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.vshpynta.mockserver.WireMockServerCreator.createWireMockServer;
+import static com.vshpynta.mockserver.WireMockServerCreator.defaultWireMockConfig;
+
+/**
+ * Pool of started WireMock servers shared by test classes. Servers are started once and handed out as
+ * {@link WireMockServerLease}s in round-robin order; leases of the same server are isolated by path prefixes,
+ * so test classes running in parallel can share servers.
+ * <p>
+ * Request journal of pooled servers is bounded, because it is never reset while the servers live.
+ */
+@Slf4j
+public final class WireMockServerPool implements AutoCloseable {
+
+    public static final String POOL_SIZE_PROPERTY = "mockserver.wiremock.pool.size";
+
+    private static final int DEFAULT_POOL_SIZE = 2;
+    private static final int SERVER_STARTUP_TIMEOUT = 10;
+    private static final int MAX_REQUEST_JOURNAL_ENTRIES = 10_000;
+
+    private static volatile WireMockServerPool sharedPool;
+
+    private final List<WireMockServer> servers;
+    private final Set<WireMockServerLease> leases = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger nextServer = new AtomicInteger();
+    private final AtomicLong nextNamespace = new AtomicLong();
+
+    private WireMockServerPool(List<WireMockServer> servers) {
+        this.servers = servers;
+    }
+
+    public static WireMockServerPool create(int size, int serverStartupInitialTimeout) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Pool size must be positive: " + size);
+        }
+        List<WireMockServer> servers = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            servers.add(createWireMockServer(defaultWireMockConfig().maxRequestJournalEntries(MAX_REQUEST_JOURNAL_ENTRIES),
+                    serverStartupInitialTimeout));
+        }
+        return new WireMockServerPool(Collections.unmodifiableList(servers));
+    }
+
+    /**
+     * JVM-wide pool, started on first use and stopped on JVM shutdown.
+     * Its size is taken from {@value #POOL_SIZE_PROPERTY} system property.
+     */
+    public static WireMockServerPool shared() {
+        WireMockServerPool pool = sharedPool;
+        if (pool == null) {
+            synchronized (WireMockServerPool.class) {
+                pool = sharedPool;
+                if (pool == null) {
+                    pool = create(Integer.getInteger(POOL_SIZE_PROPERTY, DEFAULT_POOL_SIZE), SERVER_STARTUP_TIMEOUT);
+                    Runtime.getRuntime().addShutdownHook(new Thread(pool::close, "wiremock-pool-shutdown"));
+                    sharedPool = pool;
+                }
+            }
+        }
+        return pool;
+    }
+
+    public WireMockServerLease lease() {
+        WireMockServer server = servers.get(Math.floorMod(nextServer.getAndIncrement(), servers.size()));
+        WireMockServerLease lease = new WireMockServerLease(this, server, "/lease-" + nextNamespace.incrementAndGet());
+        leases.add(lease);
+        return lease;
+    }
+
+    public int size() {
+        return servers.size();
+    }
+
+    public int activeLeases() {
+        return leases.size();
+    }
+
+    void release(WireMockServerLease lease) {
+        leases.remove(lease);
+    }
+
+    @Override
+    public void close() {
+        leases.forEach(WireMockServerLease::close);
+        servers.forEach(server -> {
+            if (server.isRunning()) {
+                server.stop();
+            }
+        });
+        log.debug("WireMock server pool of {} servers is stopped", servers.size());
+    }
+}
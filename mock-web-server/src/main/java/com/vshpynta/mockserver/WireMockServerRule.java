@@ -1,6 +1,8 @@
 package com.vshpynta.mockserver;
 
 import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.extension.PostServeAction;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
 import com.google.common.collect.ImmutableMap;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -11,13 +13,33 @@ import org.junit.rules.TestRule;
 import org.junit.runner.Description;
 import org.junit.runners.model.Statement;
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
-import static com.vshpynta.mockserver.WireMockServerConfigurer.stubRequests;
+import static com.vshpynta.mockserver.WireMockServerConfigurer.stubIgnoredUnderPath;
+import static com.vshpynta.mockserver.WireMockServerConfigurer.stubRequestsUnderPath;
+import static java.lang.String.format;
 import static java.util.Arrays.stream;
+import static java.util.stream.Collectors.toList;
 
 /**
  * JUnit Rule to configure mock mockServer.
+ * <p>
+ * Hits, match attempts and WireMock processing times of each scenario are collected in {@link #getMetrics()} and
+ * logged after the test, if the server has {@link ScenarioMetricsAction} extension registered. WireMock matches
+ * a request against all its stubs, so every request served during the test is a match attempt of each scenario;
+ * match time is not measured separately from the processing time.
+ * <p>
+ * Requests to the paths of {@link MockServerScenario#ignore()}, e.g. health checks or telemetry, are answered with
+ * an empty {@code 200 OK} response by stubs of the highest priority, so WireMock does not match them against
+ * the scenario stubs and they are not recorded in the metrics.
  */
 @NoArgsConstructor
 @AllArgsConstructor
@@ -28,30 +50,130 @@ public class WireMockServerRule implements TestRule {
     @Builder.Default
     private Map<String, Object> placeholdersValues = ImmutableMap.of();
 
-    @Getter
+    @Builder.Default
+    private ResponseBodySource responseBodySource = ResponseBodySource.INLINE;
+
     private WireMockServer wireMockServer;
 
+    /**
+     * Pooled server lease, if set, stubs are registered in its namespace instead of {@link #wireMockServer}.
+     */
+    @Getter
+    private WireMockServerLease wireMockServerLease;
+
+    /**
+     * Recorder, if set, proxies requests not matched by scenarios to its upstream and records them
+     * during each test.
+     */
+    private ScenarioRecorder scenarioRecorder;
+
+    private final Queue<StubMapping> stubMappings = new ConcurrentLinkedQueue<>();
+
+    private final Map<UUID, String> scenarioFiles = new ConcurrentHashMap<>();
+
+    private final Set<UUID> ignoredStubs = ConcurrentHashMap.newKeySet();
+
+    @Getter
+    private final MockServerMetrics metrics = new MockServerMetrics();
+
+    public WireMockServer getWireMockServer() {
+        return wireMockServerLease != null ? wireMockServerLease.getWireMockServer() : wireMockServer;
+    }
+
+    /**
+     * Base URL stubbed requests should be sent to.
+     */
+    public String getBaseUrl() {
+        return wireMockServerLease != null ? wireMockServerLease.baseUrl()
+                : format("http://localhost:%s", wireMockServer.port());
+    }
+
     @Override
     public Statement apply(Statement base, Description description) {
         return new Statement() {
             @Override
             public void evaluate() throws Throwable {
+                metrics.reset();
                 configureMockServer(description.getAnnotation(MockServerScenario.class));
-                base.evaluate();
-                verifyAndResetMockServer();
+                ScenarioMetricsAction.Subscription metricsSubscription = subscribeMetrics();
+                if (scenarioRecorder != null) {
+                    scenarioRecorder.start();
+                }
+                try {
+                    base.evaluate();
+                } finally {
+                    if (scenarioRecorder != null) {
+                        scenarioRecorder.stop();
+                    }
+                    if (metricsSubscription != null) {
+                        metricsSubscription.close();
+                    }
+                    verifyAndResetMockServer();
+                    if (!metrics.isEmpty()) {
+                        log.info("Mock server metrics of {}:\n{}", description.getDisplayName(), metrics.report());
+                    }
+                }
             }
         };
     }
 
     private void configureMockServer(MockServerScenario serverScenario) {
-        if (serverScenario != null) {
-            stream(serverScenario.value())
-                    .map(configFile -> RequestStubConfig.of(configFile, placeholdersValues))
-                    .forEach(requestStubConfig -> stubRequests(wireMockServer, requestStubConfig));
+        if (serverScenario == null) {
+            return;
+        }
+        List<RequestStubConfig> requestStubConfigs = stream(serverScenario.value())
+                .flatMap(scenario -> ScenarioIndex.resolve(scenario).stream())
+                .map(configFile -> RequestStubConfig.of(configFile, placeholdersValues, responseBodySource))
+                .collect(toList());
+        List<StubMapping> registered = wireMockServerLease != null
+                ? wireMockServerLease.stubRequests(requestStubConfigs)
+                : stubRequestsUnderPath(wireMockServer, "", requestStubConfigs);
+        for (int i = 0; i < registered.size(); i++) {
+            scenarioFiles.put(registered.get(i).getId(), requestStubConfigs.get(i).getConfigFile());
+        }
+        stubMappings.addAll(registered);
+
+        IgnoredPaths ignoredPaths = IgnoredPaths.of(serverScenario.ignore());
+        if (!ignoredPaths.isEmpty()) {
+            List<StubMapping> ignored = wireMockServerLease != null
+                    ? wireMockServerLease.stubIgnored(ignoredPaths)
+                    : stubIgnoredUnderPath(wireMockServer, "", ignoredPaths);
+            ignored.forEach(stubMapping -> ignoredStubs.add(stubMapping.getId()));
+            stubMappings.addAll(ignored);
         }
     }
 
+    private ScenarioMetricsAction.Subscription subscribeMetrics() {
+        if (scenarioFiles.isEmpty()) {
+            return null;
+        }
+        WireMockServer server = getWireMockServer();
+        if (!server.getOptions().extensionsOfType(PostServeAction.class).containsKey(ScenarioMetricsAction.NAME)) {
+            log.debug("{} extension is not registered in WireMock server, scenario metrics are not collected",
+                    ScenarioMetricsAction.class.getSimpleName());
+            return null;
+        }
+        String pathPrefix = wireMockServerLease != null ? wireMockServerLease.getPathPrefix() : "";
+        List<StubMapping> scenarioStubs = stubMappings.stream()
+                .filter(stubMapping -> scenarioFiles.containsKey(stubMapping.getId()))
+                .collect(toList());
+        return ScenarioMetricsAction.subscribe(server.port(), pathPrefix, new HashMap<>(scenarioFiles), scenarioStubs,
+                new HashSet<>(ignoredStubs), metrics);
+    }
+
+    /**
+     * Resets the server owned by the rule. A leased server is shared with other tests, so only the stubs
+     * registered by this rule are removed from it.
+     */
     private void verifyAndResetMockServer() {
+        scenarioFiles.clear();
+        ignoredStubs.clear();
+        if (wireMockServerLease != null) {
+            wireMockServerLease.removeStubs(stubMappings);
+            stubMappings.clear();
+            return;
+        }
+        stubMappings.clear();
         if (wireMockServer != null) {
             wireMockServer.resetAll();
         }
@@ -0,0 +1,48 @@
+package com.vshpynta.mockserver;
+
+import lombok.experimental.UtilityClass;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Startup times of WireMock servers created by {@link WireMockServerCreator} in this JVM:
+ * from the server construction until it accepts connections.
+ */
+@UtilityClass
+public class WireMockServerStartupMetrics {
+
+    private static final LongAdder startedServers = new LongAdder();
+    private static final LongAdder totalStartupNanos = new LongAdder();
+    private static final AtomicLong maxStartupNanos = new AtomicLong();
+
+    static void record(long startupNanos) {
+        startedServers.increment();
+        totalStartupNanos.add(startupNanos);
+        maxStartupNanos.accumulateAndGet(startupNanos, Math::max);
+    }
+
+    public static long getStartedServers() {
+        return startedServers.sum();
+    }
+
+    public static Duration getTotalStartupTime() {
+        return Duration.ofNanos(totalStartupNanos.sum());
+    }
+
+    public static Duration getMaxStartupTime() {
+        return Duration.ofNanos(maxStartupNanos.get());
+    }
+
+    public static Duration getAverageStartupTime() {
+        long servers = startedServers.sum();
+        return servers == 0 ? Duration.ZERO : Duration.ofNanos(totalStartupNanos.sum() / servers);
+    }
+
+    public static void reset() {
+        startedServers.reset();
+        totalStartupNanos.reset();
+        maxStartupNanos.set(0);
+    }
+}
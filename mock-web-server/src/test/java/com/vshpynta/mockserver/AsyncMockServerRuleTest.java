@@ -0,0 +1,76 @@
+package com.vshpynta.mockserver;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.web.client.AsyncRestTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+public class AsyncMockServerRuleTest {
+
+    private static final String UPDATED_PRICE = "{\n" +
+            "    \"oldPrice\":222,\n" +
+            "    \"newPrice\":1111\n" +
+            "}";
+
+    private AsyncRestTemplate asyncRestTemplate = new AsyncRestTemplate();
+
+    @Rule
+    public MockServerRule rule = MockServerRule.async(() -> asyncRestTemplate);
+
+    @Test
+    @MockServerScenario("mock/servers/update-price.txt")
+    public void testAsyncMockServerRule() throws Exception {
+        assertThat(updatePrice().get().getBody()).isEqualTo(UPDATED_PRICE);
+    }
+
+    @Test
+    @MockServerScenario({
+            "mock/profiles/delayed-update-price.txt",
+            "mock/profiles/delayed-update-price.txt",
+            "mock/profiles/delayed-update-price.txt",
+            "mock/profiles/delayed-update-price.txt"
+    })
+    public void testDelayedResponsesDoNotBlockCaller() throws Exception {
+        long start = System.nanoTime();
+        List<ListenableFuture<ResponseEntity<String>>> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            results.add(updatePrice());
+        }
+        assertThat(NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(200);
+
+        for (ListenableFuture<ResponseEntity<String>> result : results) {
+            assertThat(result.get().getStatusCodeValue()).isEqualTo(200);
+        }
+        assertThat(NANOSECONDS.toMillis(System.nanoTime() - start)).isBetween(200L, 600L);
+    }
+
+    @Test
+    @MockServerScenario("mock/profiles/reset-update-price.txt")
+    public void testFaultCompletesFutureExceptionally() throws Exception {
+        ListenableFuture<ResponseEntity<String>> result = updatePrice();
+
+        assertThat(catchThrowable(result::get))
+                .isInstanceOf(ExecutionException.class)
+                .hasRootCauseInstanceOf(IOException.class);
+    }
+
+    private ListenableFuture<ResponseEntity<String>> updatePrice() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return asyncRestTemplate.postForEntity("http://test.com/price/update",
+                new HttpEntity<>("{\"price\":1111}", headers), String.class);
+    }
+}
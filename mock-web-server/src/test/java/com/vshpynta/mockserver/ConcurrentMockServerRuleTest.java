@@ -0,0 +1,81 @@
+package com.vshpynta.mockserver;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConcurrentMockServerRuleTest {
+
+    private static final String UPDATED_PRICE = "{\n" +
+            "    \"oldPrice\":222,\n" +
+            "    \"newPrice\":1111\n" +
+            "}";
+
+    private RestTemplate restTemplate = new RestTemplate();
+
+    @Rule
+    public MockServerRule rule = MockServerRule.concurrent(() -> restTemplate);
+
+    @Test
+    @MockServerScenario({
+            "mock/servers/update-price.txt",
+            "mock/servers/update-price.txt",
+            "mock/servers/update-price.txt",
+            "mock/servers/update-price.txt",
+            "mock/servers/update-price-via-form-data.txt"
+    })
+    public void testRequestsFromSeveralThreadsAreMatchedInAnyOrder() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Callable<String>> calls = new ArrayList<>();
+            calls.add(this::updatePriceViaFormData);
+            for (int i = 0; i < 4; i++) {
+                calls.add(this::updatePrice);
+            }
+
+            for (Future<String> result : executor.invokeAll(calls)) {
+                assertThat(result.get()).isEqualTo(UPDATED_PRICE);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @MockServerScenario({"mock/states/job-ready.txt", "mock/states/job-pending.txt"})
+    public void testStatefulScenarioIsMatchedByState() {
+        assertThat(restTemplate.getForObject("http://test.com/jobs/1", String.class)).isEqualTo("{\"status\":\"PENDING\"}");
+        assertThat(restTemplate.getForObject("http://test.com/jobs/1", String.class)).isEqualTo("{\"status\":\"READY\"}");
+    }
+
+    private String updatePrice() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return restTemplate.postForObject("http://test.com/price/update",
+                new HttpEntity<>("{\"price\":1111}", headers), String.class);
+    }
+
+    private String updatePriceViaFormData() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+        MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
+        form.add("price", "555");
+        form.add("sessionId", "AAA");
+        form.add("userId", "1111");
+        return restTemplate.postForObject("http://test.com/price/update", new HttpEntity<>(form, headers), String.class);
+    }
+}
@@ -0,0 +1,94 @@
+package com.vshpynta.mockserver;
+
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+public class ConcurrentRequestExpectationManagerTest {
+
+    private final AtomicInteger matchedRequests = new AtomicInteger();
+
+    @Test
+    public void testRequestIsMatchedOnlyAgainstItsEndpoint() {
+        RestTemplate restTemplate = new RestTemplate();
+        ConcurrentRequestExpectationManager manager = new ConcurrentRequestExpectationManager();
+        MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build(manager);
+        for (int i = 0; i < 500; i++) {
+            server.expect(once(), new EndpointMatcher("/items/" + i)).andRespond(withSuccess("item " + i, null));
+        }
+
+        String item = restTemplate.getForObject("http://test.com/items/{id}", String.class, 321);
+
+        assertThat(item).isEqualTo("item 321");
+        assertThat(matchedRequests.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testFailedCommitReleasesClaim() {
+        RestTemplate restTemplate = new RestTemplate();
+        ConcurrentRequestExpectationManager manager = new ConcurrentRequestExpectationManager();
+        MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build(manager);
+        server.expect(once(), new FirstCommitFailingMatcher("/items/1")).andRespond(withSuccess("committed", null));
+        server.expect(once(), new EndpointMatcher("/items/1")).andRespond(withSuccess("item 1", null));
+
+        assertThat(restTemplate.getForObject("http://test.com/items/1", String.class)).isEqualTo("item 1");
+        assertThat(restTemplate.getForObject("http://test.com/items/1", String.class)).isEqualTo("committed");
+        server.verify();
+    }
+
+    /**
+     * Matches requests of the endpoint, its first commit fails as if another request has taken the expectation's step.
+     */
+    private class FirstCommitFailingMatcher extends EndpointMatcher
+            implements ConcurrentRequestExpectationManager.CommittingRequestMatcher {
+
+        private final AtomicInteger commits = new AtomicInteger();
+
+        FirstCommitFailingMatcher(String path) {
+            super(path);
+        }
+
+        @Override
+        public boolean commit(ClientHttpRequest request) {
+            return commits.incrementAndGet() > 1;
+        }
+    }
+
+    private class EndpointMatcher implements ConcurrentRequestExpectationManager.IndexedRequestMatcher {
+
+        private final String path;
+
+        EndpointMatcher(String path) {
+            this.path = path;
+        }
+
+        @Override
+        public void match(ClientHttpRequest request) {
+            matchedRequests.incrementAndGet();
+            assertThat(request.getURI().getPath()).isEqualTo(path);
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return HttpMethod.GET;
+        }
+
+        @Override
+        public String getHost() {
+            return "test.com";
+        }
+
+        @Override
+        public String getPath() {
+            return path;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.vshpynta.mockserver;
+
+import org.junit.Test;
+
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IgnoredPathsTest {
+
+    private final IgnoredPaths ignoredPaths = IgnoredPaths.of("", "/health", "/metrics/**", "/telemetry/*/events");
+
+    @Test
+    public void testMatches() {
+        assertThat(ignoredPaths.matches("/health")).isTrue();
+        assertThat(ignoredPaths.matches("/metrics")).isTrue();
+        assertThat(ignoredPaths.matches("/metrics/jvm/memory")).isTrue();
+        assertThat(ignoredPaths.matches("/telemetry/app/events")).isTrue();
+        assertThat(ignoredPaths.matches("/health/db")).isFalse();
+        assertThat(ignoredPaths.matches("/metricsx")).isFalse();
+        assertThat(ignoredPaths.matches("/telemetry/a/b/events")).isFalse();
+        assertThat(IgnoredPaths.of("").isEmpty()).isTrue();
+    }
+
+    @Test
+    public void testRegexesMatchLikePatterns() {
+        Pattern[] regexes = ignoredPaths.toRegexes("/lease-1").stream().map(Pattern::compile).toArray(Pattern[]::new);
+
+        assertThat(regexes).hasSize(3);
+        assertThat(regexes[0].matcher("/lease-1/health").matches()).isTrue();
+        assertThat(regexes[0].matcher("/health").matches()).isFalse();
+        assertThat(regexes[1].matcher("/lease-1/metrics").matches()).isTrue();
+        assertThat(regexes[1].matcher("/lease-1/metrics/jvm/memory").matches()).isTrue();
+        assertThat(regexes[1].matcher("/lease-1/metricsx").matches()).isFalse();
+        assertThat(regexes[2].matcher("/lease-1/telemetry/app/events").matches()).isTrue();
+        assertThat(regexes[2].matcher("/lease-1/telemetry/a/b/events").matches()).isFalse();
+    }
+
+    @Test
+    public void testRegexesMatchUriVariables() {
+        Pattern[] regexes = IgnoredPaths.of("/jobs/{id}", "/orders/{id:\\d+}/items").toRegexes("")
+                .stream().map(Pattern::compile).toArray(Pattern[]::new);
+
+        assertThat(regexes[0].matcher("/jobs/1").matches()).isTrue();
+        assertThat(regexes[0].matcher("/jobs/").matches()).isFalse();
+        assertThat(regexes[0].matcher("/jobs/1/status").matches()).isFalse();
+        assertThat(regexes[1].matcher("/orders/42/items").matches()).isTrue();
+        assertThat(regexes[1].matcher("/orders/x/items").matches()).isFalse();
+    }
+
+    @Test
+    public void testRegexesDoNotMatchOtherLeasePrefixes() {
+        Pattern[] regexes = IgnoredPaths.of("**/health", "*/events", "/metrics/**").toRegexes("/lease-1")
+                .stream().map(Pattern::compile).toArray(Pattern[]::new);
+
+        assertThat(regexes[0].matcher("/lease-1/health").matches()).isTrue();
+        assertThat(regexes[0].matcher("/lease-1/db/health").matches()).isTrue();
+        assertThat(regexes[0].matcher("/lease-10/health").matches()).isFalse();
+        assertThat(regexes[1].matcher("/lease-1/app/events").matches()).isTrue();
+        assertThat(regexes[1].matcher("/lease-10/events").matches()).isFalse();
+        assertThat(regexes[2].matcher("/lease-10/metrics").matches()).isFalse();
+    }
+}
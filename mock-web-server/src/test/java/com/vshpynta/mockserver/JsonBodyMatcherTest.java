@@ -0,0 +1,62 @@
+package com.vshpynta.mockserver;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.skyscreamer.jsonassert.JSONCompareMode.LENIENT;
+import static org.skyscreamer.jsonassert.JSONCompareMode.STRICT;
+
+public class JsonBodyMatcherTest {
+
+    private static final String EXPECTED = "{\"price\":1111,\"tags\":[\"a\",\"b\"],\"owner\":{\"id\":1}}";
+
+    @Test
+    public void testLenientMatch() {
+        JsonBodyMatcher matcher = JsonBodyMatcher.compile(EXPECTED, LENIENT);
+
+        assertThat(matcher.mismatch("{\"owner\":{\"id\":1.0,\"name\":\"x\"},\"tags\":[\"b\",\"a\"],\"price\":1111,\"extra\":[1]}"))
+                .isNull();
+        assertThat(matcher.mismatch("{\"price\":1111,\"tags\":[\"a\",\"b\"],\"owner\":{\"id\":2}}"))
+                .isEqualTo("$.owner.id: expected 1 but was 2");
+        assertThat(matcher.mismatch("{\"price\":1111,\"tags\":[\"a\",\"c\"],\"owner\":{\"id\":1}}"))
+                .isEqualTo("$.tags[1]: no matching element");
+        assertThat(matcher.mismatch("{\"price\":1111,\"tags\":[\"a\",\"b\"]}"))
+                .isEqualTo("$.owner: missing field");
+    }
+
+    @Test
+    public void testLenientArrayElementsArePairedWithBacktracking() {
+        JsonBodyMatcher matcher = JsonBodyMatcher.compile("[{},{\"a\":1}]", LENIENT);
+
+        assertThat(matcher.mismatch("[{\"a\":1},{\"b\":2}]")).isNull();
+        assertThat(matcher.mismatch("{\"items\":[{\"a\":1},{\"b\":2}]}")).isNotNull();
+        assertThat(JsonBodyMatcher.compile("{\"items\":[{},{\"a\":1}]}", LENIENT)
+                .mismatch("{\"items\":[{\"a\":1},{\"b\":2}]}")).isNull();
+        assertThat(matcher.mismatch("[{\"b\":1},{\"b\":2}]")).isEqualTo("$[1]: no matching element");
+    }
+
+    @Test
+    public void testNumbersAreComparedExactly() {
+        assertThat(JsonBodyMatcher.compile("{\"id\":9007199254740993}", LENIENT).mismatch("{\"id\":9007199254740992}"))
+                .isEqualTo("$.id: expected 9007199254740993 but was 9007199254740992");
+        assertThat(JsonBodyMatcher.compile("[0.10000000000000000001]", LENIENT).mismatch("[0.1]")).isNotNull();
+        assertThat(JsonBodyMatcher.compile("{\"price\":1.50}", STRICT).matches("{\"price\":1.5}")).isTrue();
+    }
+
+    @Test
+    public void testStrictMatch() {
+        JsonBodyMatcher matcher = JsonBodyMatcher.compile(EXPECTED, STRICT);
+
+        assertThat(matcher.matches(EXPECTED)).isTrue();
+        assertThat(matcher.mismatch("{\"price\":1111,\"tags\":[\"b\",\"a\"],\"owner\":{\"id\":1}}"))
+                .isEqualTo("$.tags[0]: expected \"a\" but was b");
+        assertThat(matcher.mismatch("{\"price\":1111,\"tags\":[\"a\",\"b\"],\"owner\":{\"id\":1},\"extra\":true}"))
+                .isEqualTo("$.extra: unexpected field");
+    }
+
+    @Test
+    public void testInvalidActualBody() {
+        assertThat(JsonBodyMatcher.compile(EXPECTED, LENIENT).mismatch("{\"price\":"))
+                .startsWith("Actual body is not valid JSON");
+    }
+}
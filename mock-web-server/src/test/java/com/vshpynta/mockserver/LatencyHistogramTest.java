@@ -0,0 +1,40 @@
+package com.vshpynta.mockserver;
+
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 10_000; i++) {
+            histogram.record(i * 1000);
+        }
+
+        assertThat(histogram.getCount()).isEqualTo(10_000);
+        assertThat(histogram.getMax()).isEqualTo(Duration.ofMillis(10));
+        assertThat(histogram.getMean().toNanos()).isEqualTo(5_000_500);
+        assertThat((double) histogram.getPercentile(50).toNanos()).isCloseTo(5_000_000, within(5_000_000 / 16.0));
+        assertThat((double) histogram.getPercentile(99).toNanos()).isCloseTo(9_900_000, within(9_900_000 / 16.0));
+        assertThat(histogram.getPercentile(100)).isEqualTo(Duration.ofMillis(10));
+    }
+
+    @Test
+    public void testSmallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(3);
+        histogram.record(17);
+
+        assertThat(histogram.getPercentile(50)).isEqualTo(Duration.ofNanos(3));
+        assertThat(histogram.getPercentile(100)).isEqualTo(Duration.ofNanos(17));
+
+        histogram.reset();
+        assertThat(histogram.getCount()).isZero();
+        assertThat(histogram.getPercentile(50)).isEqualTo(Duration.ZERO);
+    }
+}
@@ -0,0 +1,78 @@
+package com.vshpynta.mockserver;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.nCopies;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MockServerCallBodyTest {
+
+    @Test
+    public void testFirstLineAppendedToEmptyBodyIsNotSeparated() {
+        assertThat(MockServerCallBody.of(new byte[0]).appendLine("first").appendLine("second").asString())
+                .isEqualTo("first\nsecond");
+        assertThat(MockServerCallBody.of("").appendLine("first").asString()).isEqualTo("first");
+        assertThat(MockServerCallBody.of("head").appendLine("first").asString()).isEqualTo("head\nfirst");
+    }
+
+    @Test
+    public void testBodyOfBytesIsNotChangedByCaller() {
+        byte[] bytes = "price".getBytes(UTF_8);
+        MockServerCallBody body = MockServerCallBody.of(bytes);
+
+        bytes[0] = 'P';
+
+        assertThat(body.asString()).isEqualTo("price");
+        assertThat(body.toByteArray()).isEqualTo("price".getBytes(UTF_8));
+    }
+
+    @Test
+    public void testCallerCannotChangeBodyThroughReturnedBytes() {
+        MockServerCallBody body = MockServerCallBody.of("price");
+
+        body.toByteArray()[0] = 'P';
+
+        assertThat(body.toByteArray()).isEqualTo("price".getBytes(UTF_8));
+        assertThat(body.asString()).isEqualTo("price");
+    }
+
+    @Test
+    public void testStreamedBodyIsLoadedOnceByConcurrentReaders() throws Exception {
+        AtomicInteger opened = new AtomicInteger();
+        MockServerCallBody body = MockServerCallBody.streamed(() -> {
+            opened.incrementAndGet();
+            return new ByteArrayInputStream("[{\"id\":0}]".getBytes(UTF_8));
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = executor.invokeAll(nCopies(64, (Callable<String>) body::asString));
+            for (Future<String> result : results) {
+                assertThat(result.get()).isEqualTo("[{\"id\":0}]");
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(opened.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testCallDoesNotLoadStreamedBodyInToStringAndHashCode() {
+        MockServerCall call = new MockServerCall();
+        call.setResponseBodyContent(MockServerCallBody.streamed(() -> {
+            throw new AssertionError("Streamed body must not be opened");
+        }));
+
+        assertThat(call.toString()).doesNotContain("responseBody");
+        assertThat(call.hashCode()).isEqualTo(new MockServerCall().hashCode());
+        assertThat(call).isEqualTo(new MockServerCall());
+    }
+}
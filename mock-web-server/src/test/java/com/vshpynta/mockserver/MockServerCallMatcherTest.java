@@ -0,0 +1,59 @@
+package com.vshpynta.mockserver;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.net.URI;
+
+import static com.vshpynta.mockserver.MockServerCallParser.parseFile;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.http.HttpMethod.GET;
+import static org.springframework.http.HttpMethod.POST;
+
+public class MockServerCallMatcherTest {
+
+    private final MockServerCallMatcher matcher =
+            MockServerCallMatcher.compile(parseFile("mock/servers/update-price.txt", ImmutableMap.of()));
+
+    @Test
+    public void testMatch() {
+        assertThat(matcher.mismatch(POST, URI.create("http://test.com/price/update?currency=USD"),
+                jsonHeaders(), () -> "{\"price\":1111,\"currency\":\"USD\"}".getBytes(UTF_8)))
+                .isNull();
+    }
+
+    @Test
+    public void testMismatch() {
+        assertThat(matcher.mismatch(POST, URI.create("http://test.com/price/delete"), jsonHeaders(), () -> new byte[0]))
+                .isEqualTo("Unexpected request path expected:</price/update> but was:</price/delete>");
+        assertThat(matcher.mismatch(GET, URI.create("http://test.com/price/update"), jsonHeaders(), () -> new byte[0]))
+                .isEqualTo("Unexpected HttpMethod expected:<POST> but was:<GET>");
+        assertThat(matcher.mismatch(POST, URI.create("http://test.com/price/update"), jsonHeaders(),
+                () -> "{\"price\":2222}".getBytes(UTF_8)))
+                .startsWith("Unexpected request body");
+    }
+
+    @Test
+    public void testQueryParametersMatch() {
+        MockServerCall call = parseFile("mock/servers/update-price.txt", ImmutableMap.of());
+        call.setRequestPath("/price/update?currency=USD&draft=");
+        call.setRequestBody((String) null);
+        MockServerCallMatcher queryMatcher = MockServerCallMatcher.compile(call);
+
+        assertThat(queryMatcher.mismatch(POST, URI.create("http://test.com/price/update?draft&id=1&currency=USD"),
+                jsonHeaders(), () -> new byte[0]))
+                .isNull();
+        assertThat(queryMatcher.mismatch(POST, URI.create("http://test.com/price/update?currency=EUR&draft"),
+                jsonHeaders(), () -> new byte[0]))
+                .startsWith("Unexpected request query parameters");
+    }
+
+    private static HttpHeaders jsonHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return headers;
+    }
+}
@@ -0,0 +1,202 @@
+package com.vshpynta.mockserver;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.tomakehurst.wiremock.http.Fault;
+import com.google.common.collect.ImmutableMap;
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.net.URL;
+import java.nio.file.Files;
+
+import static com.vshpynta.mockserver.MockServerCallParser.parseFile;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class MockServerCallParserTest {
+
+    @Test
+    public void testParseFile() {
+        MockServerCall call = parseFile("mock/servers/update-price.txt", ImmutableMap.of());
+
+        assertThat(call.getRequestMethod()).isEqualTo(HttpMethod.POST);
+        assertThat(call.getRequestHost()).isEqualTo("test.com");
+        assertThat(call.getRequestPath()).isEqualTo("/price/update");
+        assertThat(call.getRequestHeaders().getFirst("Content-Type")).isEqualTo("application/json");
+        assertThat(call.getRequestBody()).isEqualTo("{\n" +
+                "    \"price\":1111\n" +
+                "}");
+        assertThat(call.getResponseStatus()).isEqualTo(HttpStatus.OK);
+        assertThat(call.getResponseBody()).isEqualTo("{\n" +
+                "    \"oldPrice\":222,\n" +
+                "    \"newPrice\":1111\n" +
+                "}");
+        assertThat(call.getResponseBodyBytes()).isEqualTo(call.getResponseBody().getBytes(UTF_8));
+    }
+
+    @Test
+    public void testParseFileBindsEachContextToCachedTemplate() {
+        MockServerCall first = parseFile("mock/servers/update-price-with-param.txt", ImmutableMap.of("new-price-param", 1));
+        MockServerCall second = parseFile("mock/servers/update-price-with-param.txt", ImmutableMap.of("new-price-param", 2));
+        MockServerCall unbound = parseFile("mock/servers/update-price-with-param.txt", ImmutableMap.of());
+
+        assertThat(first.getResponseBody()).contains("\"newPrice\":1\n");
+        assertThat(second.getResponseBody()).contains("\"newPrice\":2\n");
+        assertThat(unbound.getResponseBody()).contains("\"newPrice\":${new-price-param}\n");
+    }
+
+    @Test
+    public void testParseLargeFileStreamsResponseBody() throws Exception {
+        File scenarioFile = new File(new File(getClass().getClassLoader().getResource("mock/servers").toURI()),
+                "large-export.txt");
+        StringBuilder expectedBody = new StringBuilder("[");
+        try (PrintWriter writer = new PrintWriter(scenarioFile, UTF_8.name())) {
+            writer.println("GET /export HTTP/1.1");
+            writer.println("Host: test.com");
+            writer.println();
+            writer.println("HTTP/1.1 200 OK");
+            writer.println("Content-Type: application/json");
+            writer.println();
+            writer.println("[");
+            for (int i = 0; i < 50_000; i++) {
+                writer.println("{\"id\":" + i + ",\"owner\":\"${owner}\"},");
+                expectedBody.append("\n{\"id\":").append(i).append(",\"owner\":\"export\"},");
+            }
+            writer.println("]");
+        }
+        expectedBody.append("\n]");
+
+        MockServerCall call = parseFile("mock/servers/large-export.txt", ImmutableMap.of("owner", "export"));
+
+        assertThat(call.getRequestPath()).isEqualTo("/export");
+        assertThat(call.getResponseStatus()).isEqualTo(HttpStatus.OK);
+        assertThat(call.getResponseBodyContent().isStreamed()).isTrue();
+        try (InputStream body = call.getResponseBodyContent().openStream()) {
+            assertThat(IOUtils.toString(body, UTF_8)).isEqualTo(expectedBody.toString());
+        }
+        assertThat(call.getResponseBody()).isEqualTo(expectedBody.toString());
+    }
+
+    @Test
+    public void testParseResponseProfileDirectives() {
+        MockServerCall slow = parseFile("mock/profiles/slow-update-price.txt", ImmutableMap.of());
+        MockServerCall reset = parseFile("mock/profiles/reset-update-price.txt", ImmutableMap.of());
+
+        assertThat(slow.getRequestPath()).isEqualTo("/price/update");
+        assertThat(slow.getResponseProfile().getFixedDelayMillis()).isEqualTo(100);
+        assertThat(slow.getResponseProfile().sampleDelayMillis()).isBetween(100L, 150L);
+        assertThat(slow.getResponseProfile().chunks(slow.getResponseBodyBytes().length)).isEqualTo(3);
+        assertThat(slow.getResponseProfile().getFault()).isNull();
+        assertThat(reset.getResponseProfile().getFault()).isEqualTo(Fault.CONNECTION_RESET_BY_PEER);
+        assertThat(parseFile("mock/servers/update-price.txt", ImmutableMap.of()).getResponseProfile().isEmpty()).isTrue();
+    }
+
+    @Test
+    public void testParseStreamedBodyDirectives() throws Exception {
+        MockServerCall generated = parseFile("mock/profiles/generated-items.txt", ImmutableMap.of());
+        MockServerCall file = parseFile("mock/profiles/file-items.txt", ImmutableMap.of());
+
+        assertThat(generated.getResponseBodyContent().isStreamed()).isTrue();
+        assertThat(generated.getResponseProfile().getChunkSize()).isEqualTo(4096);
+        try (InputStream body = generated.getResponseBodyContent().openStream()) {
+            String content = IOUtils.toString(body, UTF_8);
+            assertThat(content).startsWith("[{\"id\":0},{\"id\":1},").endsWith(",{\"id\":9999}]");
+            assertThat(new ObjectMapper().readTree(content).size()).isEqualTo(10_000);
+        }
+        assertThat(file.getResponseBodyContent().isStreamed()).isTrue();
+        assertThat(file.getResponseBody()).isEqualTo("[{\"id\":0},{\"id\":1},{\"id\":2}]");
+    }
+
+    @Test
+    public void testParseScenarioStepDirectives() {
+        ScenarioStep pending = parseFile("mock/states/job-pending.txt", ImmutableMap.of()).getScenarioStep();
+        ScenarioStep ready = parseFile("mock/states/job-ready.txt", ImmutableMap.of()).getScenarioStep();
+
+        assertThat(pending.getScenario()).isEqualTo("job");
+        assertThat(pending.getRequiredState()).isNull();
+        assertThat(pending.getNextState()).isEqualTo("ready");
+        assertThat(ready.getRequiredState()).isEqualTo("ready");
+        assertThat(ready.getNextState()).isNull();
+        assertThat(parseFile("mock/servers/update-price.txt", ImmutableMap.of()).getScenarioStep()).isNull();
+    }
+
+    @Test
+    public void testGeneratedBodyFormats() throws Exception {
+        assertThat(read(new GeneratedBody(GeneratedBody.Format.LINES, 3, "line {{index}}"))).isEqualTo("line 0\nline 1\nline 2");
+        assertThat(read(new GeneratedBody(GeneratedBody.Format.LINES, 0, "line {{index}}"))).isEmpty();
+        assertThat(read(new GeneratedBody(GeneratedBody.Format.JSON_ARRAY, 0, "{{index}}"))).isEqualTo("[]");
+        GeneratedBody items = new GeneratedBody(GeneratedBody.Format.JSON_ARRAY, 1000, "{\"id\":{{index}},\"code\":\"{{index}}\"}");
+        assertThat(items.size()).isEqualTo(read(items).getBytes(UTF_8).length);
+        assertThat(new GeneratedBody(GeneratedBody.Format.LINES, 0, "line {{index}}").size()).isZero();
+    }
+
+    @Test
+    public void testClearCacheRereadsChangedFile() throws Exception {
+        File scenarioFile = File.createTempFile("changed", ".txt");
+        scenarioFile.deleteOnExit();
+        Files.write(scenarioFile.toPath(), asList("GET /items HTTP/1.1", "Host: test.com", "", "HTTP/1.1 200 OK"), UTF_8);
+        URL scenario = scenarioFile.toURI().toURL();
+        parseFile(scenario, ImmutableMap.of());
+        Files.write(scenarioFile.toPath(), asList("GET /items HTTP/1.1", "Host: test.com", "", "HTTP/1.1 404 Not Found"), UTF_8);
+
+        assertThat(parseFile(scenario, ImmutableMap.of()).getResponseStatus()).isEqualTo(HttpStatus.OK);
+        MockServerCallParser.clearCache();
+        assertThat(parseFile(scenario, ImmutableMap.of()).getResponseStatus()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    public void testInvalidDirectiveIsReportedWithFileAndLine() throws Exception {
+        File scenarioFile = File.createTempFile("zero-bandwidth", ".txt");
+        scenarioFile.deleteOnExit();
+        Files.write(scenarioFile.toPath(), asList("# Throttled export", "@delay 10", "@bandwidth 0", "",
+                "GET /items HTTP/1.1", "Host: test.com", "", "HTTP/1.1 200 OK"), UTF_8);
+        URL scenario = scenarioFile.toURI().toURL();
+
+        assertThatThrownBy(() -> parseFile(scenario, ImmutableMap.of()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith(scenario + ":3: ")
+                .hasMessageContaining("positive number expected: 0");
+    }
+
+    @Test
+    public void testDribbleWithBandwidthIsReportedWithFileAndLine() throws Exception {
+        File scenarioFile = File.createTempFile("dribble-bandwidth", ".txt");
+        scenarioFile.deleteOnExit();
+        Files.write(scenarioFile.toPath(), asList("@chunked-dribble 5 1000", "@bandwidth 1024", "",
+                "GET /items HTTP/1.1", "Host: test.com", "", "HTTP/1.1 200 OK"), UTF_8);
+        URL scenario = scenarioFile.toURI().toURL();
+
+        assertThatThrownBy(() -> parseFile(scenario, ImmutableMap.of()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith(scenario + ":2: ")
+                .hasMessageContaining("cannot be combined with @chunked-dribble");
+    }
+
+    @Test
+    public void testDeliveryTimeOfHugeBodyIsSaturated() {
+        ResponseProfile profile = new ResponseProfile();
+        profile.setBandwidthBytesPerSecond(1);
+
+        assertThat(profile.deliveryMillis(3_000_000L)).isEqualTo(Integer.MAX_VALUE);
+        assertThat(profile.deliveryMillis(1_500L)).isEqualTo(1_500_000);
+        assertThat(profile.chunks(Long.MAX_VALUE)).isEqualTo(Integer.MAX_VALUE);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseMissingFile() {
+        parseFile("mock/servers/missing.txt", ImmutableMap.of());
+    }
+
+    private static String read(MockServerCallBody.Source source) throws Exception {
+        try (InputStream body = source.open()) {
+            return IOUtils.toString(body, UTF_8);
+        }
+    }
+}
@@ -7,9 +7,13 @@ import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
 import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertNotNull;
 
@@ -44,6 +48,13 @@ public class MockServerRuleTest {
                 "    \"oldPrice\":222,\n" +
                 "    \"newPrice\":1111\n" +
                 "}");
+
+        ScenarioMetrics metrics = rule.getMetrics().get("mock/servers/update-price.txt");
+        assertThat(metrics.getHits()).isEqualTo(1);
+        assertThat(metrics.getMatchAttempts()).isEqualTo(1);
+        assertThat(metrics.getMatchTime().getCount()).isEqualTo(1);
+        assertThat(metrics.getResponseTime().getCount()).isEqualTo(1);
+        assertThat(rule.getMetrics().report()).contains("mock/servers/update-price.txt");
     }
 
     @Test
@@ -63,4 +74,82 @@ public class MockServerRuleTest {
                 "    \"newPrice\":%s\n" +
                 "}", newPrice));
     }
+
+    @Test
+    @MockServerScenario("mock/servers/update-price-via-form-data.txt")
+    public void testMockServerRuleForFormData() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+        MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
+        form.add("price", "555");
+        form.add("comment", "price & discount");
+        form.add("sessionId", "AAA");
+        form.add("userId", "1111");
+
+        ResponseEntity<String> result = restTemplate.postForEntity("http://test.com/price/update",
+                new HttpEntity<>(form, headers), String.class);
+        assertThat(result.getBody()).isEqualTo("{\n" +
+                "    \"oldPrice\":222,\n" +
+                "    \"newPrice\":1111\n" +
+                "}");
+    }
+
+    @Test
+    @MockServerScenario("mock/profiles/slow-update-price.txt")
+    public void testMockServerRuleWithDelayedResponse() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        long start = System.nanoTime();
+        ResponseEntity<String> result = restTemplate.postForEntity("http://test.com/price/update",
+                new HttpEntity<>("{\"price\":1111}", headers), String.class);
+
+        assertThat(NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(300);
+        assertThat(result.getBody()).isEqualTo("{\n" +
+                "    \"oldPrice\":222,\n" +
+                "    \"newPrice\":1111\n" +
+                "}");
+    }
+
+    @Test(expected = ResourceAccessException.class)
+    @MockServerScenario("mock/profiles/reset-update-price.txt")
+    public void testMockServerRuleWithFault() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        restTemplate.postForEntity("http://test.com/price/update", new HttpEntity<>("{\"price\":1111}", headers), String.class);
+    }
+
+    @Test
+    @MockServerScenario(value = "mock/servers/update-price.txt", ignore = {"/health", "/metrics/**"})
+    public void testMockServerRuleWithIgnoredPaths() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(restTemplate.getForEntity("http://test.com/health", String.class).getStatusCodeValue()).isEqualTo(200);
+            restTemplate.postForEntity("http://test.com/metrics/jvm", "{}", String.class);
+        }
+        restTemplate.postForEntity("http://test.com/price/update", new HttpEntity<>("{\"price\":1111}", headers), String.class);
+
+        assertThat(rule.getMetrics().get("mock/servers/update-price.txt").getMatchAttempts()).isEqualTo(1);
+    }
+
+    @Test
+    @MockServerScenario("mock/profiles/generated-items.txt")
+    public void testMockServerRuleWithGeneratedBody() {
+        String result = restTemplate.getForObject("http://test.com/items", String.class);
+
+        assertThat(result).startsWith("[{\"id\":0},").endsWith(",{\"id\":9999}]");
+    }
+
+    @Test
+    @MockServerScenario("mock/profiles/slow-generated-items.txt")
+    public void testMockServerRuleWithThrottledGeneratedBody() {
+        long start = System.nanoTime();
+        String result = restTemplate.getForObject("http://test.com/items/slow", String.class);
+
+        assertThat(NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(250);
+        assertThat(result).hasSize(10891).startsWith("[{\"id\":0},").endsWith(",{\"id\":999}]");
+    }
 }
@@ -0,0 +1,207 @@
+package com.vshpynta.mockserver;
+
+import com.jayway.restassured.http.ContentType;
+import com.jayway.restassured.response.Response;
+import org.junit.After;
+import org.junit.Before;
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.Socket;
+
+import static com.jayway.restassured.RestAssured.given;
+import static com.jayway.restassured.http.ContentType.JSON;
+import static org.apache.http.HttpStatus.SC_NOT_FOUND;
+import static org.apache.http.HttpStatus.SC_OK;
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NioMockServerTest {
+
+    private static final String CRLF = "\r\n";
+
+    private NioMockServer server;
+
+    @Before
+    public void startServer() {
+        server = NioMockServer.start();
+    }
+
+    @After
+    public void closeServer() {
+        server.close();
+    }
+
+    @Test
+    public void testServeScenarios() {
+        server.stubRequests(RequestStubConfig.of("mock/servers/update-price.txt"),
+                RequestStubConfig.of("mock/servers/update-price-via-form-data.txt"));
+
+        for (int i = 0; i < 20; i++) {
+            Response response = given()
+                    .contentType(JSON)
+                    .body("{\"price\":1111}")
+                    .when().post(server.baseUrl() + "/price/update");
+
+            response.then().statusCode(SC_OK);
+            assertThat(response.getBody().asString()).isEqualTo("{\n" +
+                    "    \"oldPrice\":222,\n" +
+                    "    \"newPrice\":1111\n" +
+                    "}");
+        }
+        given()
+                .contentType(ContentType.URLENC.withCharset("UTF-8"))
+                .formParam("price", 555)
+                .formParam("userId", 1111)
+                .formParam("sessionId", "AAA")
+                .when().post(server.baseUrl() + "/price/update")
+                .then().statusCode(SC_OK);
+    }
+
+    @Test
+    public void testUnmatchedRequest() {
+        server.stubRequests(RequestStubConfig.of("mock/servers/update-price.txt"));
+
+        Response response = given()
+                .contentType(JSON)
+                .body("{\"price\":1}")
+                .when().post(server.baseUrl() + "/price/update");
+
+        response.then().statusCode(SC_NOT_FOUND);
+        assertThat(response.getBody().asString()).contains("Unexpected request body");
+
+        server.reset();
+        given().when().get(server.baseUrl() + "/items").then().statusCode(SC_NOT_FOUND);
+    }
+
+    @Test
+    public void testServeStreamedBodies() {
+        server.stubRequests(RequestStubConfig.of("mock/profiles/generated-items.txt"),
+                RequestStubConfig.of("mock/profiles/file-items.txt"));
+
+        Response generated = given().when().get(server.baseUrl() + "/items");
+        Response file = given().when().get(server.baseUrl() + "/items/export");
+
+        generated.then().statusCode(SC_OK).header("Transfer-Encoding", "chunked");
+        assertThat(generated.getBody().asString()).startsWith("[{\"id\":0},").endsWith(",{\"id\":9999}]");
+        file.then().statusCode(SC_OK);
+        assertThat(file.getBody().asString()).isEqualTo("[{\"id\":0},{\"id\":1},{\"id\":2}]");
+    }
+
+    @Test
+    public void testFileBodyWithChunkSizeIsChunked() {
+        server.stubRequests(RequestStubConfig.of("mock/profiles/chunked-file-items.txt"));
+
+        Response response = given().when().get(server.baseUrl() + "/items/chunked");
+
+        response.then().statusCode(SC_OK).header("Transfer-Encoding", "chunked");
+        assertThat(response.getHeader("Content-Length")).isNull();
+        assertThat(response.getBody().asString()).isEqualTo("[{\"id\":0},{\"id\":1},{\"id\":2}]");
+    }
+
+    @Test
+    public void testRandomDataIsGeneratedForEveryResponse() throws IOException {
+        server.stubRequests(RequestStubConfig.of("mock/profiles/random-data-items.txt"));
+
+        byte[] first = readRawResponse("GET /items/broken HTTP/1.1" + CRLF + "Host: test.com" + CRLF + CRLF);
+        byte[] second = readRawResponse("GET /items/broken HTTP/1.1" + CRLF + "Host: test.com" + CRLF + CRLF);
+
+        assertThat(first).hasSize(1024);
+        assertThat(second).hasSize(1024).isNotEqualTo(first);
+    }
+
+    @Test
+    public void testHeadRequestIsAnsweredWithHeadersOnly() {
+        server.stubRequests(RequestStubConfig.of("mock/profiles/head-items.txt"));
+
+        Response response = given().when().head(server.baseUrl() + "/items/export");
+
+        response.then().statusCode(SC_OK).header("Content-Length", "28");
+        assertThat(response.getBody().asString()).isEmpty();
+        given().when().head(server.baseUrl() + "/items/export").then().statusCode(SC_OK);
+    }
+
+    @Test
+    public void testDispatchByDecodedPath() {
+        server.stubRequests(RequestStubConfig.of("mock/servers/get-item-with-encoded-path.txt"));
+
+        Response response = given().urlEncodingEnabled(false).when().get(server.baseUrl() + "/items/summer%20sale");
+
+        response.then().statusCode(SC_OK);
+        assertThat(response.getBody().asString()).isEqualTo("{\"name\":\"summer sale\"}");
+    }
+
+    @Test
+    public void testMalformedRequestDoesNotStopServer() throws IOException {
+        server.stubRequests(RequestStubConfig.of("mock/servers/update-price.txt"));
+
+        try (Socket socket = new Socket("localhost", server.port())) {
+            socket.getOutputStream().write(("POST /price/update HTTP/1.1" + CRLF + "Host: test.com" + CRLF
+                    + "Content-Length: abc" + CRLF + CRLF).getBytes(ISO_8859_1));
+            String statusLine = new BufferedReader(new InputStreamReader(socket.getInputStream(), ISO_8859_1))
+                    .readLine();
+            assertThat(statusLine).startsWith("HTTP/1.1 400");
+        }
+        given()
+                .contentType(JSON)
+                .body("{\"price\":1111}")
+                .when().post(server.baseUrl() + "/price/update")
+                .then().statusCode(SC_OK);
+    }
+
+    @Test
+    public void testDelayedResponse() {
+        server.stubRequests(RequestStubConfig.of("mock/profiles/delayed-update-price.txt"),
+                RequestStubConfig.of("mock/profiles/file-items.txt"));
+
+        long start = System.nanoTime();
+        Response delayed = given()
+                .contentType(JSON)
+                .body("{\"price\":1111}")
+                .when().post(server.baseUrl() + "/price/update");
+
+        delayed.then().statusCode(SC_OK);
+        assertThat(NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(200);
+        given().when().get(server.baseUrl() + "/items/export").then().statusCode(SC_OK);
+    }
+
+    @Test
+    public void testStatefulScenario() {
+        server.stubRequests(RequestStubConfig.of("mock/states/job-ready.txt"),
+                RequestStubConfig.of("mock/states/job-pending.txt"));
+
+        assertThat(given().when().get(server.baseUrl() + "/jobs/1").asString()).isEqualTo("{\"status\":\"PENDING\"}");
+        assertThat(given().when().get(server.baseUrl() + "/jobs/1").asString()).isEqualTo("{\"status\":\"READY\"}");
+        assertThat(given().when().get(server.baseUrl() + "/jobs/1").asString()).isEqualTo("{\"status\":\"READY\"}");
+
+        server.reset();
+        server.stubRequests(RequestStubConfig.of("mock/states/job-pending.txt"));
+        assertThat(given().when().get(server.baseUrl() + "/jobs/1").asString()).isEqualTo("{\"status\":\"PENDING\"}");
+    }
+
+    @Test(expected = IOException.class)
+    public void testFault() {
+        server.stubRequests(RequestStubConfig.of("mock/profiles/reset-update-price.txt"));
+
+        given()
+                .contentType(JSON)
+                .body("{\"price\":1111}")
+                .when().post(server.baseUrl() + "/price/update");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testThrottlingIsNotSupported() {
+        server.stubRequests(RequestStubConfig.of("mock/profiles/slow-update-price.txt"));
+    }
+
+    private byte[] readRawResponse(String request) throws IOException {
+        try (Socket socket = new Socket("localhost", server.port())) {
+            socket.getOutputStream().write(request.getBytes(ISO_8859_1));
+            return IOUtils.toByteArray(socket.getInputStream());
+        }
+    }
+}
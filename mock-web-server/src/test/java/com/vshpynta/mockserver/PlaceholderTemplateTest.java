@@ -0,0 +1,47 @@
+package com.vshpynta.mockserver;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PlaceholderTemplateTest {
+
+    private final Map<String, Object> context = ImmutableMap.of("price", 99, "currency", "USD");
+
+    @Test
+    public void testSubstitute() {
+        assertThat(PlaceholderTemplate.substitute("{\"price\":${price},\"currency\":\"${currency}\"}", context))
+                .isEqualTo("{\"price\":99,\"currency\":\"USD\"}");
+    }
+
+    @Test
+    public void testSubstituteDefaultValue() {
+        assertThat(PlaceholderTemplate.substitute("${price:1}/${amount:10}", context))
+                .isEqualTo("99/10");
+    }
+
+    @Test
+    public void testSubstituteKeepsMissingAndEscapedPlaceholders() {
+        assertThat(PlaceholderTemplate.substitute("${missing} $${price} ${price", context))
+                .isEqualTo("${missing} ${price} ${price");
+    }
+
+    @Test
+    public void testSubstituteNullValue() {
+        assertThat(PlaceholderTemplate.substitute("[${price}][${price:0}]", Collections.singletonMap("price", null)))
+                .isEqualTo("[][0]");
+    }
+
+    @Test
+    public void testCompiledTemplateBindsAnyContext() {
+        PlaceholderTemplate template = PlaceholderTemplate.compile("$${price}=${price:0} ${currency}");
+
+        assertThat(template.hasPlaceholders()).isTrue();
+        assertThat(template.bind(context)).isEqualTo("${price}=99 USD");
+        assertThat(template.bind(ImmutableMap.of())).isEqualTo("${price}=0 ${currency}");
+    }
+}
@@ -0,0 +1,70 @@
+package com.vshpynta.mockserver;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static com.vshpynta.mockserver.MockServerCallParser.parseFile;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ScenarioCompilerTest {
+
+    @Test
+    public void testCompiledScenarioIsLoadedInsteadOfText() throws Exception {
+        Path servers = new File(getClass().getClassLoader().getResource("mock/servers").toURI()).toPath();
+        Path directory = Files.createDirectories(servers.resolveSibling("compiled"));
+        Path scenario = Files.copy(servers.resolve("update-price-with-param.txt"),
+                directory.resolve("update-price-with-param.txt"), REPLACE_EXISTING);
+
+        List<Path> compiled = ScenarioCompiler.compileDirectory(directory);
+        Files.delete(scenario);
+
+        assertThat(compiled).containsExactly(directory.resolve("update-price-with-param.txt.bin"));
+        Map<String, Object> context = ImmutableMap.of("new-price-param", 5);
+        MockServerCall compiledCall = parseFile("mock/compiled/update-price-with-param.txt", context);
+        MockServerCall textCall = parseFile("mock/servers/update-price-with-param.txt", context);
+        assertThat(compiledCall).isEqualTo(textCall);
+        assertThat(compiledCall.getRequestBody()).isEqualTo(textCall.getRequestBody());
+        assertThat(compiledCall.getResponseBody()).isEqualTo(textCall.getResponseBody()).contains("\"newPrice\":5");
+    }
+
+    @Test
+    public void testCompiledScenarioInJarIsOutdatedByNewerText() throws Exception {
+        File jar = File.createTempFile("scenarios", ".jar");
+        jar.deleteOnExit();
+        List<String> text = asList("GET /items HTTP/1.1", "Host: test.com", "", "HTTP/1.1 200 OK");
+        ByteArrayOutputStream compiled = new ByteArrayOutputStream();
+        ScenarioTemplate.compile("items.txt", text.iterator()).writeTo(compiled);
+        long compiledAt = System.currentTimeMillis() - 60_000;
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar.toPath()))) {
+            write(out, "items.txt", String.join("\n", text).getBytes(UTF_8), compiledAt + 10_000);
+            write(out, "items.txt.bin", compiled.toByteArray(), compiledAt);
+            write(out, "prices.txt", String.join("\n", text).getBytes(UTF_8), compiledAt);
+            write(out, "prices.txt.bin", compiled.toByteArray(), compiledAt + 10_000);
+        }
+        String base = "jar:" + jar.toURI() + "!/";
+
+        assertThat(MockServerCallParser.isOutdated(new URL(base + "items.txt.bin"), new URL(base + "items.txt"))).isTrue();
+        assertThat(MockServerCallParser.isOutdated(new URL(base + "prices.txt.bin"), new URL(base + "prices.txt"))).isFalse();
+    }
+
+    private static void write(JarOutputStream jar, String name, byte[] content, long time) throws Exception {
+        JarEntry entry = new JarEntry(name);
+        entry.setTime(time);
+        jar.putNextEntry(entry);
+        jar.write(content);
+        jar.closeEntry();
+    }
+}
@@ -0,0 +1,32 @@
+package com.vshpynta.mockserver;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ScenarioIndexTest {
+
+    @Test
+    public void testResolveGlob() {
+        assertThat(ScenarioIndex.resolve("mock/servers/update-price*.txt")).containsExactly(
+                "mock/servers/update-price-via-form-data.txt",
+                "mock/servers/update-price-with-param.txt",
+                "mock/servers/update-price.txt");
+    }
+
+    @Test
+    public void testResolveDirectory() {
+        assertThat(ScenarioIndex.resolve("mock/servers/")).contains(
+                "mock/servers/update-price-via-form-data.txt",
+                "mock/servers/update-price-with-param.txt",
+                "mock/servers/update-price.txt");
+        assertThat(ScenarioIndex.resolve("mock/")).contains("mock/servers/update-price.txt");
+    }
+
+    @Test
+    public void testResolveFile() {
+        assertThat(ScenarioIndex.resolve("mock/servers/update-price.txt"))
+                .containsExactly("mock/servers/update-price.txt");
+        assertThat(ScenarioIndex.resolve("mock/servers/missing-*.txt")).isEmpty();
+    }
+}
@@ -0,0 +1,41 @@
+package com.vshpynta.mockserver;
+
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ScenarioLoadDriverTest {
+
+    @Test
+    public void testRunScenarios() {
+        ScenarioLoadReport report = ScenarioLoadDriver.builder()
+                .scenarios(asList("mock/servers/update-price.txt", "mock/servers/update-price-via-form-data.txt"))
+                .threads(4)
+                .requests(400)
+                .warmup(Duration.ofMillis(100))
+                .build()
+                .run();
+
+        assertThat(report.getRequests()).isEqualTo(400);
+        assertThat(report.getErrors()).isZero();
+        assertThat(report.getLatency().getCount()).isEqualTo(400);
+        assertThat(report.getThroughput()).isGreaterThan(0);
+        assertThat(report.getLatencyPercentile(99)).isGreaterThanOrEqualTo(report.getLatencyPercentile(50));
+    }
+
+    @Test
+    public void testRunCountsFaultsAsErrors() {
+        ScenarioLoadReport report = ScenarioLoadDriver.builder()
+                .scenarios(asList("mock/profiles/reset-update-price.txt"))
+                .threads(2)
+                .requests(10)
+                .build()
+                .run();
+
+        assertThat(report.getRequests()).isEqualTo(10);
+        assertThat(report.getErrors()).isEqualTo(10);
+    }
+}
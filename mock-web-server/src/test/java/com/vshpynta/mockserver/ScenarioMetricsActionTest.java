@@ -0,0 +1,17 @@
+package com.vshpynta.mockserver;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ScenarioMetricsActionTest {
+
+    @Test
+    public void testPathIsUnderPrefix() {
+        assertThat(ScenarioMetricsAction.isUnder("/lease-1/price/update", "/lease-1")).isTrue();
+        assertThat(ScenarioMetricsAction.isUnder("/lease-1", "/lease-1")).isTrue();
+        assertThat(ScenarioMetricsAction.isUnder("/price/update", "")).isTrue();
+        assertThat(ScenarioMetricsAction.isUnder("/lease-10/price/update", "/lease-1")).isFalse();
+        assertThat(ScenarioMetricsAction.isUnder("/price/update", "/lease-1")).isFalse();
+    }
+}
@@ -0,0 +1,111 @@
+package com.vshpynta.mockserver;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.jayway.restassured.response.Response;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.jayway.restassured.RestAssured.given;
+import static com.jayway.restassured.http.ContentType.JSON;
+import static com.vshpynta.mockserver.MockServerCallParser.parseFile;
+import static com.vshpynta.mockserver.WireMockServerConfigurer.stubRequests;
+import static com.vshpynta.mockserver.WireMockServerCreator.createWireMockServer;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.http.HttpStatus.SC_OK;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ScenarioRecorderTest {
+
+    private WireMockServer upstream;
+    private WireMockServer proxy;
+
+    @Before
+    public void startServers() {
+        upstream = createWireMockServer(5);
+        proxy = createWireMockServer(5);
+    }
+
+    @After
+    public void stopServers() {
+        upstream.stop();
+        proxy.stop();
+    }
+
+    @Test
+    public void testProxiedExchangeIsRecordedAsScenario() throws Exception {
+        stubRequests(upstream, "mock/servers/update-price.txt");
+        Path outputDirectory = new File(getClass().getClassLoader().getResource("mock").toURI()).toPath()
+                .resolve("recorded");
+
+        try (ScenarioRecorder recorder = ScenarioRecorder.builder()
+                .wireMockServer(proxy)
+                .upstreamUrl(format("http://localhost:%s", upstream.port()))
+                .requestHost("test.com")
+                .outputDirectory(outputDirectory)
+                .build()) {
+            recorder.start();
+            Response response = given()
+                    .contentType(JSON)
+                    .body("{\n    \"price\":1111\n}")
+                    .when().post(format("http://localhost:%s/price/update", proxy.port()));
+            response.then().statusCode(SC_OK);
+            recorder.stop();
+
+            assertThat(recorder.getWrittenFiles()).isEqualTo(1);
+        }
+
+        assertThat(Files.exists(outputDirectory.resolve("0001-post-price-update.txt"))).isTrue();
+        MockServerCall recorded = parseFile("mock/recorded/0001-post-price-update.txt", Collections.emptyMap());
+        MockServerCall expected = parseFile("mock/servers/update-price.txt", Collections.emptyMap());
+        assertThat(recorded.getUri()).isEqualTo(expected.getUri());
+        assertThat(recorded.getRequestMethod()).isEqualTo(expected.getRequestMethod());
+        assertThat(recorded.getRequestHeaders().getFirst("Content-Type")).startsWith("application/json");
+        assertThat(recorded.getRequestBody()).isEqualTo(expected.getRequestBody());
+        assertThat(recorded.getResponseStatus()).isEqualTo(expected.getResponseStatus());
+        assertThat(recorded.getResponseBody()).isEqualTo(expected.getResponseBody());
+    }
+
+    @Test
+    public void testExchangeWithNonStandardStatusIsSkipped() throws Exception {
+        upstream.stubFor(get(urlEqualTo("/closed")).willReturn(aResponse().withStatus(499)));
+        Path outputDirectory = new File(getClass().getClassLoader().getResource("mock").toURI()).toPath()
+                .resolve("recorded-skipped");
+
+        try (ScenarioRecorder recorder = ScenarioRecorder.builder()
+                .wireMockServer(proxy)
+                .upstreamUrl(format("http://localhost:%s", upstream.port()))
+                .outputDirectory(outputDirectory)
+                .build()) {
+            recorder.start();
+            given().when().get(format("http://localhost:%s/closed", proxy.port())).then().statusCode(499);
+            recorder.stop();
+
+            assertThat(recorder.getWrittenFiles()).isZero();
+        }
+    }
+
+    @Test
+    public void testWrittenBodyLinesAreNotTakenForStatusLine() throws Exception {
+        MockServerCall call = parseFile("mock/servers/update-price.txt", Collections.emptyMap());
+        call.setRequestBody("first\nHTTP/1.1 200 OK\nlast");
+        Path file = Files.createTempFile("scenario", ".txt");
+        file.toFile().deleteOnExit();
+        Files.write(file, MockServerCallWriter.toText(call).getBytes(UTF_8));
+
+        MockServerCall parsed = parseFile(file.toUri().toURL(), Collections.emptyMap());
+
+        assertThat(parsed.getRequestBody()).isEqualTo("first\n HTTP/1.1 200 OK\nlast");
+        assertThat(parsed.getResponseStatus()).isEqualTo(call.getResponseStatus());
+        assertThat(parsed.getResponseBody()).isEqualTo(call.getResponseBody());
+    }
+}
@@ -0,0 +1,77 @@
+package com.vshpynta.mockserver;
+
+import com.google.common.collect.ImmutableMap;
+import com.jayway.restassured.response.Response;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static com.jayway.restassured.RestAssured.given;
+import static com.jayway.restassured.http.ContentType.JSON;
+import static org.apache.http.HttpStatus.SC_NOT_FOUND;
+import static org.apache.http.HttpStatus.SC_OK;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class WireMockServerPoolTest {
+
+    private static WireMockServerPool pool;
+
+    @BeforeClass
+    public static void initPool() {
+        pool = WireMockServerPool.create(1, 5);
+    }
+
+    @AfterClass
+    public static void closePool() {
+        pool.close();
+    }
+
+    @Test
+    public void testServerStartupIsRecorded() {
+        assertThat(WireMockServerStartupMetrics.getStartedServers()).isPositive();
+        assertThat(WireMockServerStartupMetrics.getMaxStartupTime())
+                .isGreaterThanOrEqualTo(WireMockServerStartupMetrics.getAverageStartupTime())
+                .isGreaterThan(Duration.ZERO);
+    }
+
+    @Test
+    public void testLeasesOfSameServerAreIsolated() {
+        try (WireMockServerLease first = pool.lease();
+             WireMockServerLease second = pool.lease()) {
+            first.stubRequests(RequestStubConfig.of("mock/servers/update-price-with-param.txt",
+                    ImmutableMap.of("new-price-param", 1)));
+            second.stubRequests(RequestStubConfig.of("mock/servers/update-price-with-param.txt",
+                    ImmutableMap.of("new-price-param", 2)));
+
+            assertThat(first.getWireMockServer()).isSameAs(second.getWireMockServer());
+            assertThat(updatePrice(first).getBody().asString()).contains("\"newPrice\":1\n");
+            assertThat(updatePrice(second).getBody().asString()).contains("\"newPrice\":2\n");
+        }
+    }
+
+    @Test
+    public void testClosingLeaseRemovesOnlyItsStubs() {
+        WireMockServerLease first = pool.lease();
+        try (WireMockServerLease second = pool.lease()) {
+            first.stubRequests(RequestStubConfig.of("mock/servers/update-price.txt"));
+            second.stubRequests(RequestStubConfig.of("mock/servers/update-price.txt"));
+
+            first.close();
+
+            assertThat(first.isClosed()).isTrue();
+            assertThat(pool.activeLeases()).isEqualTo(1);
+            updatePrice(first).then().statusCode(SC_NOT_FOUND);
+            updatePrice(second).then().statusCode(SC_OK);
+        }
+        assertThat(pool.activeLeases()).isZero();
+    }
+
+    private static Response updatePrice(WireMockServerLease lease) {
+        return given()
+                .contentType(JSON)
+                .body("{\"price\":1111}")
+                .when().post(lease.url("/price/update"));
+    }
+}
@@ -1,6 +1,7 @@
 package com.vshpynta.mockserver;
 
 import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
 import com.google.common.collect.ImmutableMap;
 import com.jayway.restassured.http.ContentType;
 import com.jayway.restassured.response.Response;
@@ -9,14 +10,25 @@ import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
 
 import static com.jayway.restassured.RestAssured.given;
 import static com.jayway.restassured.http.ContentType.JSON;
 import static com.vshpynta.mockserver.WireMockServerConfigurer.stubRequests;
+import static com.vshpynta.mockserver.WireMockServerConfigurer.stubRequestsInParallel;
 import static com.vshpynta.mockserver.WireMockServerCreator.createWireMockServer;
 import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static org.apache.http.HttpStatus.SC_OK;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.Assert.assertNotNull;
 
 public class WireMockServerRuleTest {
@@ -86,6 +98,198 @@ public class WireMockServerRuleTest {
                 "}");
     }
 
+    @Test
+    @MockServerScenario("mock/servers/update-price-*.txt")
+    public void testMockServerRuleWithGlob() throws InterruptedException {
+        Response response = given()
+                .contentType(ContentType.URLENC.withCharset("UTF-8"))
+                .formParam("price", 555)
+                .formParam("userId", 1111)
+                .formParam("sessionId", "AAA")
+                .when().post(format("http://localhost:%s/price/update", rule.getWireMockServer().port()));
+
+        response.then().statusCode(SC_OK);
+        assertThat(wireMockServer.getStubMappings()).hasSize(2);
+
+        ScenarioMetrics formData = awaitMetrics("mock/servers/update-price-via-form-data.txt");
+        ScenarioMetrics withParam = awaitMetrics("mock/servers/update-price-with-param.txt");
+        assertThat(formData.getHits()).isEqualTo(1);
+        assertThat(formData.getMatchAttempts()).isEqualTo(1);
+        assertThat(formData.getResponseTime().getCount()).isZero();
+        assertThat(rule.getMetrics().report()).containsPattern("update-price-via-form-data.txt +1 +1 +- +- +- +-");
+        assertThat(withParam.getHits()).isZero();
+        assertThat(withParam.getMatchAttempts()).isEqualTo(1);
+    }
+
+    @Test
+    @MockServerScenario(value = "mock/servers/update-price.txt", ignore = {"/health", "/metrics/**", "/jobs/{id}/events"})
+    public void testMockServerRuleWithIgnoredPaths() throws InterruptedException {
+        String baseUrl = format("http://localhost:%s", rule.getWireMockServer().port());
+
+        given().when().get(baseUrl + "/health").then().statusCode(SC_OK);
+        given().when().get(baseUrl + "/jobs/1/events").then().statusCode(SC_OK);
+        given().when().post(baseUrl + "/metrics/jvm").then().statusCode(SC_OK);
+        given().when().get(baseUrl + "/metrics").then().statusCode(SC_OK);
+        given()
+                .contentType(JSON)
+                .body("{\"price\":1111}")
+                .when().post(baseUrl + "/price/update")
+                .then().statusCode(SC_OK);
+
+        ScenarioMetrics metrics = awaitMetrics("mock/servers/update-price.txt");
+        assertThat(metrics.getHits()).isEqualTo(1);
+        assertThat(metrics.getMatchAttempts()).isEqualTo(1);
+    }
+
+    @Test
+    @MockServerScenario({"mock/servers/update-price.txt", "mock/states/job-pending.txt"})
+    public void testMatchAttemptsAreCountedForScenariosOfRequestEndpoint() throws InterruptedException {
+        String baseUrl = format("http://localhost:%s", rule.getWireMockServer().port());
+
+        given().when().get(baseUrl + "/jobs/1").then().statusCode(SC_OK);
+        given()
+                .contentType(JSON)
+                .body("{\"price\":1111}")
+                .when().post(baseUrl + "/price/update")
+                .then().statusCode(SC_OK);
+
+        ScenarioMetrics updatePrice = awaitMetrics("mock/servers/update-price.txt");
+        ScenarioMetrics jobPending = awaitMetrics("mock/states/job-pending.txt");
+        assertThat(updatePrice.getMatchAttempts()).isEqualTo(1);
+        assertThat(jobPending.getMatchAttempts()).isEqualTo(1);
+    }
+
+    /**
+     * Metrics are recorded by WireMock after the response is sent.
+     */
+    private ScenarioMetrics awaitMetrics(String scenario) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 1000;
+        while (rule.getMetrics().get(scenario) == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        return rule.getMetrics().get(scenario);
+    }
+
+    @Test
+    @MockServerScenario({"mock/states/job-pending.txt", "mock/states/job-ready.txt"})
+    public void testMockServerRuleWithStatefulScenario() {
+        String url = format("http://localhost:%s/jobs/1", rule.getWireMockServer().port());
+
+        assertThat(given().when().get(url).asString()).isEqualTo("{\"status\":\"PENDING\"}");
+        assertThat(given().when().get(url).asString()).isEqualTo("{\"status\":\"READY\"}");
+        assertThat(given().when().get(url).asString()).isEqualTo("{\"status\":\"READY\"}");
+    }
+
+    @Test
+    @MockServerScenario("mock/profiles/slow-update-price.txt")
+    public void testMockServerRuleWithDelayedResponse() {
+        long start = System.nanoTime();
+        Response response = given()
+                .contentType(JSON)
+                .body("{\"price\":1111}")
+                .when().post(format("http://localhost:%s/price/update", rule.getWireMockServer().port()));
+
+        response.then().statusCode(SC_OK);
+        assertThat(NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(200);
+        assertThat(response.getBody().asString()).isEqualTo("{\n" +
+                "    \"oldPrice\":222,\n" +
+                "    \"newPrice\":1111\n" +
+                "}");
+    }
+
+    @Test(expected = IOException.class)
+    @MockServerScenario("mock/profiles/reset-update-price.txt")
+    public void testMockServerRuleWithFault() {
+        given()
+                .contentType(JSON)
+                .body("{\"price\":1111}")
+                .when().post(format("http://localhost:%s/price/update", rule.getWireMockServer().port()));
+    }
+
+    @Test
+    @MockServerScenario("mock/profiles/generated-items.txt")
+    public void testMockServerRuleWithGeneratedBody() {
+        Response response = given()
+                .when().get(format("http://localhost:%s/items", rule.getWireMockServer().port()));
+
+        response.then().statusCode(SC_OK);
+        assertThat(response.getHeader("Transfer-Encoding")).isEqualTo("chunked");
+        assertThat(response.getBody().asString()).startsWith("[{\"id\":0},").endsWith(",{\"id\":9999}]");
+        assertThat(rule.getWireMockServer().getAllServeEvents())
+                .extracting(serveEvent -> serveEvent.getResponse().getBody())
+                .containsExactly((byte[]) null);
+    }
+
+    @Test
+    @MockServerScenario("mock/profiles/slow-generated-items.txt")
+    public void testMockServerRuleWithThrottledGeneratedBody() {
+        long start = System.nanoTime();
+        Response response = given()
+                .when().get(format("http://localhost:%s/items/slow", rule.getWireMockServer().port()));
+
+        response.then().statusCode(SC_OK);
+        assertThat(NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(250);
+        assertThat(response.getBody().asString()).hasSize(10891).startsWith("[{\"id\":0},").endsWith(",{\"id\":999}]");
+        assertThat(rule.getWireMockServer().getAllServeEvents())
+                .extracting(serveEvent -> serveEvent.getResponse().getBody())
+                .containsExactly((byte[]) null);
+    }
+
+    @Test
+    @MockServerScenario("mock/profiles/file-items.txt")
+    public void testMockServerRuleWithFileBody() {
+        Response response = given()
+                .when().get(format("http://localhost:%s/items/export", rule.getWireMockServer().port()));
+
+        response.then().statusCode(SC_OK);
+        assertThat(response.getBody().asString()).isEqualTo("[{\"id\":0},{\"id\":1},{\"id\":2}]");
+    }
+
+    @Test
+    public void testRuleResetsOwnedServerAfterTest() throws Throwable {
+        WireMockServerRule ownRule = WireMockServerRule.builder().wireMockServer(wireMockServer).build();
+        Statement test = new Statement() {
+            @Override
+            public void evaluate() {
+                stubRequests(wireMockServer, "mock/states/job-pending.txt");
+                given().when().get(format("http://localhost:%s/jobs/1", wireMockServer.port())).then().statusCode(SC_OK);
+            }
+        };
+
+        ownRule.apply(test, Description.createTestDescription(getClass(), "test")).evaluate();
+
+        assertThat(wireMockServer.getStubMappings()).isEmpty();
+        assertThat(wireMockServer.getAllServeEvents()).isEmpty();
+    }
+
+    @Test
+    public void testMockServerStreamsLargeScenarioFileBody() throws Exception {
+        File scenarioFile = new File(new File(getClass().getClassLoader().getResource("mock/servers").toURI()),
+                "large-stub-export.txt");
+        try (PrintWriter writer = new PrintWriter(scenarioFile, UTF_8.name())) {
+            writer.println("GET /large-export HTTP/1.1");
+            writer.println("Host: test.com");
+            writer.println();
+            writer.println("HTTP/1.1 200 OK");
+            writer.println("Content-Type: application/json");
+            writer.println();
+            writer.println("[");
+            for (int i = 0; i < 50_000; i++) {
+                writer.println("{\"id\":" + i + ",\"owner\":\"${new-price-param}\"},");
+            }
+            writer.println("{}]");
+        }
+        assertThat(scenarioFile.length()).isGreaterThan(MockServerCallParser.MAX_TEMPLATE_SIZE);
+
+        stubRequests(wireMockServer, ImmutableMap.of("new-price-param", newPrice), "mock/servers/large-stub-export.txt");
+
+        ResponseDefinition stubResponse = wireMockServer.getStubMappings().get(0).getResponse();
+        assertThat(stubResponse.getBody()).isNull();
+        assertThat(stubResponse.getTransformers()).containsExactly(StreamedResponseBodyTransformer.NAME);
+        String body = given().when().get(format("http://localhost:%s/large-export", wireMockServer.port())).asString();
+        assertThat(body).startsWith("[\n{\"id\":0,\"owner\":\"99\"},").endsWith("{\"id\":49999,\"owner\":\"99\"},\n{}]");
+    }
+
     @Test
     @MockServerScenario("mock/servers/update-price-with-param.txt")
     public void testMockServerRuleWithParameter() {
@@ -120,4 +324,71 @@ public class WireMockServerRuleTest {
                 "    \"newPrice\":%s\n" +
                 "}", newPrice));
     }
+
+    @Test
+    public void testMockServerWithFileBackedBodies() {
+        stubRequests(wireMockServer,
+                RequestStubConfig.of("mock/servers/update-price-with-param.txt",
+                        ImmutableMap.of("new-price-param", newPrice), ResponseBodySource.FILE),
+                RequestStubConfig.of("mock/servers/update-price-via-form-data.txt",
+                        ImmutableMap.of(), ResponseBodySource.MAPPED));
+
+        Response response = given()
+                .contentType(JSON)
+                .body("{\"price\":1111}")
+                .when().post(format("http://localhost:%s/price/update", wireMockServer.port()));
+        Response formResponse = given()
+                .contentType(ContentType.URLENC.withCharset("UTF-8"))
+                .formParam("price", 555)
+                .formParam("userId", 1111)
+                .formParam("sessionId", "AAA")
+                .when().post(format("http://localhost:%s/price/update", wireMockServer.port()));
+
+        response.then().statusCode(SC_OK);
+        assertThat(response.getBody().asString()).isEqualTo(format("{\n" +
+                "    \"oldPrice\":222,\n" +
+                "    \"newPrice\":%s\n" +
+                "}", newPrice));
+        formResponse.then().statusCode(SC_OK);
+        assertThat(formResponse.getBody().asString()).isEqualTo("{\n" +
+                "    \"oldPrice\":222,\n" +
+                "    \"newPrice\":1111\n" +
+                "}");
+        assertThat(wireMockServer.getAllServeEvents())
+                .extracting(serveEvent -> serveEvent.getResponse().getBody())
+                .containsExactly(null, null);
+    }
+
+    @Test
+    public void testMockServerWithStubsRegisteredInParallel() {
+        StubRegistrationReport report = stubRequestsInParallel(wireMockServer, asList(
+                RequestStubConfig.of("mock/servers/update-price-with-param.txt", ImmutableMap.of("new-price-param", newPrice)),
+                RequestStubConfig.of("mock/servers/update-price-via-form-data.txt")));
+
+        assertThat(report.getEntries())
+                .extracting(StubRegistrationReport.Entry::getConfigFile)
+                .containsExactly("mock/servers/update-price-with-param.txt", "mock/servers/update-price-via-form-data.txt");
+        assertThat(wireMockServer.getStubMappings()).hasSize(2);
+
+        Response response = given()
+                .contentType(JSON)
+                .body("{\"price\":1111}")
+                .when().post(format("http://localhost:%s/price/update", wireMockServer.port()));
+
+        response.then().statusCode(SC_OK);
+        assertThat(response.getBody().asString()).isEqualTo(format("{\n" +
+                "    \"oldPrice\":222,\n" +
+                "    \"newPrice\":%s\n" +
+                "}", newPrice));
+    }
+
+    @Test
+    public void testParallelRegistrationRethrowsParsingFailure() {
+        assertThatThrownBy(() -> stubRequestsInParallel(wireMockServer, asList(
+                RequestStubConfig.of("mock/servers/update-price.txt"),
+                RequestStubConfig.of("mock/servers/missing.txt"))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Cannot parse mock server call file: mock/servers/missing.txt");
+        assertThat(wireMockServer.getStubMappings()).isEmpty();
+    }
 }